@@ -0,0 +1,67 @@
+package be.seeseemelk.mockbukkit;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import org.bukkit.Server;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The {@link Server} that is installed into {@link org.bukkit.Bukkit} in
+ * {@link MockBukkit#setParallelMode(boolean) parallel mode}. Every call is forwarded to the {@link ServerMock} of the
+ * calling thread, so that static calls such as {@code Bukkit.getPluginManager()} reach the server of the test that
+ * makes them.
+ */
+final class DelegatingServer implements InvocationHandler
+{
+	private DelegatingServer()
+	{
+	}
+
+	/**
+	 * Creates a {@link Server} which forwards all calls to the {@link ServerMock} of the calling thread.
+	 *
+	 * @return The delegating server.
+	 */
+	@NotNull
+	static Server create()
+	{
+		return (Server) Proxy.newProxyInstance(Server.class.getClassLoader(), new Class<?>[] { Server.class },
+		                                       new DelegatingServer());
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+	{
+		if (method.getDeclaringClass() == Object.class)
+		{
+			switch (method.getName())
+			{
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			default:
+				return "DelegatingServer{" + MockBukkit.getMock() + "}";
+			}
+		}
+
+		ServerMock server = MockBukkit.getMock();
+		if (server == null)
+		{
+			throw new IllegalStateException("Thread " + Thread.currentThread().getName() + " is not mocking a server");
+		}
+
+		try
+		{
+			return method.invoke(server, args);
+		}
+		catch (InvocationTargetException e)
+		{
+			throw e.getCause();
+		}
+	}
+
+}
@@ -0,0 +1,101 @@
+package be.seeseemelk.mockbukkit;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.bukkit.plugin.RegisteredListener;
+import org.bukkit.plugin.RegisteredServiceProvider;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Lists the state that is still owned by plugins which are no longer enabled. Disabling a plugin should remove its
+ * listeners, cancel its tasks and unregister its services. Anything listed here survived that teardown and will keep
+ * slowing down or leaking memory into later tests. Because the handler lists of Bukkit are static, listeners left
+ * behind by earlier servers are reported as well.
+ *
+ * @see ServerMock#getLeakReport()
+ */
+public class LeakReport
+{
+	private final List<RegisteredListener> listeners;
+	private final List<BukkitTask> tasks;
+	private final List<RegisteredServiceProvider<?>> services;
+
+	public LeakReport(@NotNull List<RegisteredListener> listeners, @NotNull List<BukkitTask> tasks,
+	                  @NotNull List<RegisteredServiceProvider<?>> services)
+	{
+		this.listeners = Collections.unmodifiableList(listeners);
+		this.tasks = Collections.unmodifiableList(tasks);
+		this.services = Collections.unmodifiableList(services);
+	}
+
+	/**
+	 * Gets the event listeners of disabled plugins that are still registered.
+	 *
+	 * @return The leaked listeners.
+	 */
+	@NotNull
+	public List<RegisteredListener> getListeners()
+	{
+		return listeners;
+	}
+
+	/**
+	 * Gets the tasks of disabled plugins that are still scheduled.
+	 *
+	 * @return The leaked tasks.
+	 */
+	@NotNull
+	public List<BukkitTask> getTasks()
+	{
+		return tasks;
+	}
+
+	/**
+	 * Gets the services of disabled plugins that are still registered.
+	 *
+	 * @return The leaked services.
+	 */
+	@NotNull
+	public List<RegisteredServiceProvider<?>> getServices()
+	{
+		return services;
+	}
+
+	/**
+	 * Checks whether nothing was leaked.
+	 *
+	 * @return {@code true} if no listeners, tasks or services were leaked.
+	 */
+	public boolean isEmpty()
+	{
+		return listeners.isEmpty() && tasks.isEmpty() && services.isEmpty();
+	}
+
+	@Override
+	public String toString()
+	{
+		if (isEmpty())
+		{
+			return "No leaks found";
+		}
+		StringBuilder builder = new StringBuilder("Found state of disabled plugins:");
+		for (RegisteredListener listener : listeners)
+		{
+			builder.append(String.format("%n  listener %s of %s", listener.getListener().getClass().getName(),
+			                             listener.getPlugin().getName()));
+		}
+		for (BukkitTask task : tasks)
+		{
+			builder.append(String.format("%n  task #%d of %s", task.getTaskId(), task.getOwner().getName()));
+		}
+		for (RegisteredServiceProvider<?> service : services)
+		{
+			builder.append(String.format("%n  service %s of %s", service.getService().getName(),
+			                             service.getPlugin().getName()));
+		}
+		return builder.toString();
+	}
+
+}
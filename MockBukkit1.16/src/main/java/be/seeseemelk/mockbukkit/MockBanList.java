@@ -4,22 +4,57 @@ import org.bukkit.BanEntry;
 import org.bukkit.BanList;
 
 import java.util.*;
+import java.util.function.LongSupplier;
 
 public class MockBanList implements BanList
 {
 
 	private final Map<String, BanEntry> bans = new HashMap<>();
+	private final LongSupplier clock;
+
+	/**
+	 * Creates a ban list which never expires its bans.
+	 */
+	public MockBanList()
+	{
+		this(null);
+	}
+
+	/**
+	 * Creates a ban list which uses the given clock to date new bans and to decide whether a ban has expired.
+	 *
+	 * @param clock The clock to use, in milliseconds, or {@code null} if bans should never expire.
+	 */
+	public MockBanList(LongSupplier clock)
+	{
+		this.clock = clock;
+	}
+
+	/**
+	 * Removes all bans which have expired.
+	 */
+	private void removeExpiredBans()
+	{
+		if (clock == null)
+		{
+			return;
+		}
+		long now = clock.getAsLong();
+		bans.values().removeIf(entry -> entry.getExpiration() != null && entry.getExpiration().getTime() <= now);
+	}
 
 	@Override
 	public BanEntry getBanEntry(String target)
 	{
+		removeExpiredBans();
 		return bans.getOrDefault(target, null);
 	}
 
 	@Override
 	public BanEntry addBan(String target, String reason, Date expires, String source)
 	{
-		final BanEntry entry = new MockBanEntry(target, expires, reason, source);
+		final BanEntry entry = new MockBanEntry(target, expires, reason, source,
+		        clock == null ? new Date() : new Date(clock.getAsLong()));
 		this.bans.put(target, entry);
 		return entry;
 	}
@@ -27,12 +62,14 @@ public class MockBanList implements BanList
 	@Override
 	public Set<BanEntry> getBanEntries()
 	{
+		removeExpiredBans();
 		return new HashSet<>(this.bans.values());
 	}
 
 	@Override
 	public boolean isBanned(String target)
 	{
+		removeExpiredBans();
 		return this.bans.containsKey(target);
 	}
 
@@ -52,12 +89,18 @@ public class MockBanList implements BanList
 		private Date expires;
 
 		public MockBanEntry(final String target, final Date expires, final String reason, final String source)
+		{
+			this(target, expires, reason, source, new Date());
+		}
+
+		public MockBanEntry(final String target, final Date expires, final String reason, final String source,
+		                    final Date created)
 		{
 			this.target = target;
 			this.expires = expires;
 			this.reason = reason;
 			this.source = source;
-			this.created = new Date();
+			this.created = created;
 		}
 
 		@Override
@@ -5,9 +5,12 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Field;
+import java.util.concurrent.ThreadFactory;
 import java.util.logging.Level;
 
 import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.event.HandlerList;
 import org.bukkit.plugin.InvalidDescriptionException;
 import org.bukkit.plugin.InvalidPluginException;
 import org.bukkit.plugin.Plugin;
@@ -18,7 +21,18 @@ import org.jetbrains.annotations.NotNull;
 
 public class MockBukkit
 {
-	private static ServerMock mock = null;
+	/**
+	 * The system property that turns on {@link #setParallelMode(boolean) parallel mode}.
+	 */
+	public static final String PARALLEL_MODE_PROPERTY = "mockbukkit.parallel";
+
+	private static ServerMock sharedMock = null;
+	private static LeakReport sharedLeakReport = null;
+	private static final ThreadLocal<ServerMock> THREAD_MOCK = new ThreadLocal<>();
+	private static final ThreadLocal<LeakReport> THREAD_LEAK_REPORT = new ThreadLocal<>();
+	private static final Server DELEGATING_SERVER = DelegatingServer.create();
+	private static volatile boolean parallelMode = Boolean.getBoolean(PARALLEL_MODE_PROPERTY);
+	private static int parallelServers = 0;
 
 	private MockBukkit()
 	{
@@ -35,7 +49,7 @@ public class MockBukkit
 			Field server = Bukkit.class.getDeclaredField("server");
 			server.setAccessible(true);
 			server.set(null, null);
-			mock = null;
+			sharedMock = null;
 		}
 		catch (NoSuchFieldException | IllegalArgumentException | IllegalAccessException e)
 		{
@@ -64,21 +78,125 @@ public class MockBukkit
 	 */
 	public static <T extends ServerMock> T mock(T serverMockImplementation)
 	{
-		if (mock != null)
+		if (isMocked())
 		{
 			throw new IllegalStateException("Already mocking");
 		}
 
-		mock = serverMockImplementation;
-
+		ServerMock mock = serverMockImplementation;
 		Level defaultLevel = mock.getLogger().getLevel();
 		mock.getLogger().setLevel(Level.WARNING);
-		Bukkit.setServer(mock);
+		if (parallelMode)
+		{
+			THREAD_MOCK.set(mock);
+			installDelegatingServer();
+		}
+		else
+		{
+			sharedMock = mock;
+			Bukkit.setServer(mock);
+		}
 		mock.getLogger().setLevel(defaultLevel);
 
 		return serverMockImplementation;
 	}
 
+	/**
+	 * Makes sure {@link Bukkit} uses the server that delegates to the server of the calling thread. It stays installed
+	 * until the last server that is mocking in parallel mode is unmocked.
+	 */
+	private static synchronized void installDelegatingServer()
+	{
+		if (parallelServers++ == 0)
+		{
+			setServerInstanceToNull();
+			Bukkit.setServer(DELEGATING_SERVER);
+		}
+	}
+
+	/**
+	 * Removes the delegating server from {@link Bukkit} once no server is mocking in parallel mode anymore, so that
+	 * it never outlives the parallel servers.
+	 */
+	private static synchronized void releaseDelegatingServer()
+	{
+		if (--parallelServers == 0)
+		{
+			setServerInstanceToNull();
+		}
+	}
+
+	/**
+	 * Sets whether every thread gets its own server. Normally there is a single server, which is installed directly
+	 * into {@link Bukkit}. In parallel mode each call to {@link #mock()} binds the new server to the calling thread,
+	 * and while any thread is mocking, {@link Bukkit} gets a server which forwards every call to the server of the
+	 * thread making it. {@link Bukkit#getServer()} is then not a {@link ServerMock}; use {@link #getMock()} instead. The
+	 * asynchronous threads of its scheduler use the same server, other threads started by a test have to be created
+	 * with {@link #createServerThreadFactory(ThreadFactory)} to do so. This allows tests to run in parallel within a
+	 * single JVM.
+	 * <p>
+	 * The handler lists of Bukkit are still shared, but in parallel mode a server only calls the listeners of its own
+	 * plugins and {@link #unmock()} only unregisters those. The registries of Bukkit are shared as they would be with
+	 * the {@link ServerTemplate}. Parallel mode can also be turned on by setting the system property
+	 * {@value #PARALLEL_MODE_PROPERTY} to {@code true}.
+	 *
+	 * @param parallel {@code true} to give every thread its own server.
+	 * @throws IllegalStateException When any thread is mocking.
+	 */
+	public static synchronized void setParallelMode(boolean parallel)
+	{
+		if (isMocked() || parallelServers > 0)
+		{
+			throw new IllegalStateException("Cannot change the mode while mocking");
+		}
+		parallelMode = parallel;
+	}
+
+	/**
+	 * Checks whether every thread gets its own server.
+	 *
+	 * @return {@code true} if servers are bound to the thread that created them.
+	 * @see #setParallelMode(boolean)
+	 */
+	public static boolean isParallelMode()
+	{
+		return parallelMode;
+	}
+
+	/**
+	 * Wraps a {@link ThreadFactory} so that its threads work for the server of the thread that creates them. In
+	 * {@link #setParallelMode(boolean) parallel mode}, every new thread is bound to the server of the calling thread,
+	 * so that calls to {@link Bukkit} made on it reach that server. Outside of parallel mode the threads are created
+	 * unchanged.
+	 *
+	 * @param factory The factory that creates the threads.
+	 * @return A factory creating threads that are bound to the server of the calling thread.
+	 */
+	@NotNull
+	public static ThreadFactory createServerThreadFactory(@NotNull ThreadFactory factory)
+	{
+		return runnable ->
+		{
+			ServerMock server = parallelMode ? THREAD_MOCK.get() : null;
+			if (server == null)
+			{
+				return factory.newThread(runnable);
+			}
+			return factory.newThread(() ->
+			{
+				THREAD_MOCK.set(server);
+				try
+				{
+					runnable.run();
+				}
+				finally
+				{
+					THREAD_MOCK.remove();
+				}
+			});
+		};
+	}
+
 	/**
 	 * Get the mock server instance.
 	 * If no instance exists one will be created. Otherwise existing one is returned
@@ -92,17 +210,29 @@ public class MockBukkit
 			mock();
 		}
 
-		return mock;
+		return getMock();
 	}
 
 	/**
-	 * Get the mock server instance.
+	 * Get the mock server instance. In {@link #setParallelMode(boolean) parallel mode} this is the server of the
+	 * calling thread.
 	 *
 	 * @return The {@link ServerMock} instance or {@code null} if none is set up yet.
 	 */
 	public static ServerMock getMock()
 	{
-		return mock;
+		return parallelMode ? THREAD_MOCK.get() : sharedMock;
+	}
+
+	/**
+	 * Gets the report of everything that survived the teardown of the plugins the last time
+	 * {@link #unmock()} was called. Anything in it was cleaned up forcibly by {@code unmock()}.
+	 *
+	 * @return The last leak report, or {@code null} if {@link #unmock()} was never called.
+	 */
+	public static LeakReport getLastLeakReport()
+	{
+		return parallelMode ? THREAD_LEAK_REPORT.get() : sharedLeakReport;
 	}
 
 	/**
@@ -112,7 +242,7 @@ public class MockBukkit
 	 */
 	public static boolean isMocked()
 	{
-		return mock != null;
+		return getMock() != null;
 	}
 
 	/**
@@ -145,6 +275,7 @@ public class MockBukkit
 	{ "deprecation" })
 	public static void loadJar(File jarFile) throws InvalidPluginException
 	{
+		ServerMock mock = getMock();
 		JavaPluginLoader loader = new JavaPluginLoader(mock);
 		Plugin plugin = loader.loadPlugin(jarFile);
 		mock.getPluginManager().registerLoadedPlugin(plugin);
@@ -173,6 +304,7 @@ public class MockBukkit
 	 */
 	public static <T extends JavaPlugin> T load(Class<T> plugin, Object... parameters)
 	{
+		ServerMock mock = getMock();
 		if (mock != null)
 		{
 			JavaPlugin instance = mock.getPluginManager().loadPlugin(plugin, parameters);
@@ -198,6 +330,7 @@ public class MockBukkit
 	public static <T extends JavaPlugin> T loadWith(Class<T> plugin, PluginDescriptionFile descriptionFile,
 	        Object... parameters)
 	{
+		ServerMock mock = getMock();
 		if (mock != null)
 		{
 			JavaPlugin instance = mock.getPluginManager().loadPlugin(plugin, descriptionFile, parameters);
@@ -283,6 +416,7 @@ public class MockBukkit
 	{
 		PluginDescriptionFile description = new PluginDescriptionFile(plugin.getSimpleName(), "1.0.0",
 		        plugin.getCanonicalName());
+		ServerMock mock = getMock();
 		if (mock != null)
 		{
 			JavaPlugin instance = mock.getPluginManager().loadPlugin(plugin, description, parameters);
@@ -300,6 +434,7 @@ public class MockBukkit
 	 */
 	public static void unmock()
 	{
+		ServerMock mock = getMock();
 		if (mock == null)
 		{
 			// We aren't mocking anyway
@@ -308,6 +443,7 @@ public class MockBukkit
 
 		try
 		{
+			mock.disableWatchdog();
 			mock.getScheduler().shutdown();
 		}
 		finally
@@ -317,9 +453,30 @@ public class MockBukkit
 				mock.getPluginManager().disablePlugins();
 			}
 
+			LeakReport leakReport = mock.getLeakReport();
+			if (!leakReport.isEmpty())
+			{
+				mock.getLogger().warning(leakReport.toString());
+			}
+
 			mock.getPluginManager().unload();
-			setServerInstanceToNull();
-			mock = null;
+			// Handler lists are static and would otherwise keep every listener of this server alive. Servers on
+			// other threads may still be using them, so only the listeners of this server's plugins go.
+			for (Plugin plugin : mock.getPluginManager().getPlugins())
+			{
+				HandlerList.unregisterAll(plugin);
+			}
+			if (parallelMode)
+			{
+				THREAD_LEAK_REPORT.set(leakReport);
+				THREAD_MOCK.remove();
+				releaseDelegatingServer();
+			}
+			else
+			{
+				sharedLeakReport = leakReport;
+				setServerInstanceToNull();
+			}
 		}
 	}
 
@@ -343,6 +500,7 @@ public class MockBukkit
 	 */
 	public static @NotNull MockPlugin createMockPlugin(@NotNull String pluginName)
 	{
+		ServerMock mock = getMock();
 		if (mock != null)
 		{
 			PluginDescriptionFile description = new PluginDescriptionFile(pluginName, "1.0.0",
@@ -8,6 +8,7 @@ import java.util.Locale;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -34,8 +35,27 @@ public class MockPlayerList
 	private final List<PlayerMock> onlinePlayers = new CopyOnWriteArrayList<>();
 	private final Set<OfflinePlayer> offlinePlayers = Collections.synchronizedSet(new HashSet<>());
 
-	private BanList ipBans = new MockBanList();
-	private BanList profileBans = new MockBanList();
+	private final BanList ipBans;
+	private final BanList profileBans;
+
+	/**
+	 * Creates a new player list whose bans never expire.
+	 */
+	public MockPlayerList()
+	{
+		this(null);
+	}
+
+	/**
+	 * Creates a new player list.
+	 *
+	 * @param clock The clock used by the ban lists, in milliseconds, or {@code null} if bans should never expire.
+	 */
+	public MockPlayerList(@Nullable LongSupplier clock)
+	{
+		ipBans = new MockBanList(clock);
+		profileBans = new MockBanList(clock);
+	}
 
 	public void setMaxPlayers(int maxPlayers)
 	{
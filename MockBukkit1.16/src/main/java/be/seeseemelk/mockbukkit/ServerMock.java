@@ -13,10 +13,14 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 import java.util.logging.Level;
 import java.util.logging.LogManager;
 import java.util.logging.Logger;
@@ -67,8 +71,12 @@ import org.bukkit.inventory.Merchant;
 import org.bukkit.inventory.Recipe;
 import org.bukkit.loot.LootTable;
 import org.bukkit.map.MapView;
+import org.bukkit.event.HandlerList;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.RegisteredListener;
+import org.bukkit.plugin.RegisteredServiceProvider;
 import org.bukkit.plugin.messaging.Messenger;
+import org.bukkit.scheduler.BukkitTask;
 import org.bukkit.potion.PotionEffectType;
 import org.bukkit.util.CachedServerIcon;
 import org.jetbrains.annotations.NotNull;
@@ -81,6 +89,7 @@ import be.seeseemelk.mockbukkit.command.MessageTarget;
 import be.seeseemelk.mockbukkit.command.MockCommandMap;
 import be.seeseemelk.mockbukkit.enchantments.EnchantmentsMock;
 import be.seeseemelk.mockbukkit.entity.EntityMock;
+import be.seeseemelk.mockbukkit.entity.LivingEntityMock;
 import be.seeseemelk.mockbukkit.entity.PlayerMock;
 import be.seeseemelk.mockbukkit.entity.PlayerMockFactory;
 import be.seeseemelk.mockbukkit.help.HelpMapMock;
@@ -99,6 +108,7 @@ import be.seeseemelk.mockbukkit.inventory.meta.ItemMetaMock;
 import be.seeseemelk.mockbukkit.plugin.PluginManagerMock;
 import be.seeseemelk.mockbukkit.potion.MockPotionEffectType;
 import be.seeseemelk.mockbukkit.scheduler.BukkitSchedulerMock;
+import be.seeseemelk.mockbukkit.scheduler.MainThreadWatchdog;
 import be.seeseemelk.mockbukkit.scoreboard.ScoreboardManagerMock;
 import be.seeseemelk.mockbukkit.services.ServicesManagerMock;
 import be.seeseemelk.mockbukkit.tags.TagRegistry;
@@ -112,11 +122,13 @@ public class ServerMock extends Server.Spigot implements Server
 	private static final String BUKKIT_VERSION = "1.16.5";
 	private static final String JOIN_MESSAGE = "%s has joined the server.";
 	private static final String MOTD = "A Minecraft Server";
+	private static final long MILLIS_PER_TICK = 50L;
 
 	private final Logger logger = Logger.getLogger("ServerMock");
 	private final Thread mainThread = Thread.currentThread();
+	private final long startTime = System.currentTimeMillis();
 	private final MockUnsafeValues unsafe = new MockUnsafeValues();
-	private final Map<String, TagRegistry> materialTags = new HashMap<>();
+	private final Map<String, Map<NamespacedKey, TagWrapperMock>> materialTags = new HashMap<>();
 	private final Set<EntityMock> entities = new HashSet<>();
 	private final List<World> worlds = new ArrayList<>();
 	private final List<Recipe> recipes = new LinkedList<>();
@@ -127,14 +139,37 @@ public class ServerMock extends Server.Spigot implements Server
 	private final ScoreboardManagerMock scoreboardManager = new ScoreboardManagerMock();
 	private final BukkitSchedulerMock scheduler = new BukkitSchedulerMock();
 	private final ServicesManagerMock servicesManager = new ServicesManagerMock();
-	private final MockPlayerList playerList = new MockPlayerList();
+	private final MockPlayerList playerList = new MockPlayerList(this::getCurrentServerTime);
 	private final MockCommandMap commandMap = new MockCommandMap(this);
 	private final HelpMapMock helpMap = new HelpMapMock();
+	private final List<LongConsumer> preTickHooks = new CopyOnWriteArrayList<>();
+	private final List<LongConsumer> postTickHooks = new CopyOnWriteArrayList<>();
+	private final TickStatistics tickStatistics = new TickStatistics();
 
 	private GameMode defaultGameMode = GameMode.SURVIVAL;
 	private ConsoleCommandSender consoleSender;
 
 	public ServerMock()
+	{
+		// The registries of Bukkit are global, so servers created in parallel have to share them.
+		if (ServerTemplate.isEnabled() || MockBukkit.isParallelMode())
+		{
+			ServerTemplate.apply(this);
+		}
+		else
+		{
+			loadRegistries();
+			readLoggerConfiguration();
+		}
+
+		logger.setLevel(Level.ALL);
+	}
+
+	/**
+	 * Registers the serializables, potion effect types, tags and enchantments of a default server. Most of these are
+	 * stored in static registries of Bukkit, which are only filled the first time.
+	 */
+	void loadRegistries()
 	{
 		ServerMock.registerSerializables();
 
@@ -142,7 +177,13 @@ public class ServerMock extends Server.Spigot implements Server
 		createPotionEffectTypes();
 		TagsMock.loadDefaultTags(this, true);
 		EnchantmentsMock.registerDefaultEnchantments();
+	}
 
+	/**
+	 * Configures the {@link LogManager} using the {@code logger.properties} file of MockBukkit.
+	 */
+	void readLoggerConfiguration()
+	{
 		try
 		{
 			InputStream stream = ClassLoader.getSystemResourceAsStream("logger.properties");
@@ -152,8 +193,6 @@ public class ServerMock extends Server.Spigot implements Server
 		{
 			logger.warning("Could not load file logger.properties");
 		}
-
-		logger.setLevel(Level.ALL);
 	}
 
 	/**
@@ -178,6 +217,86 @@ public class ServerMock extends Server.Spigot implements Server
 		}
 	}
 
+	/**
+	 * Starts a watchdog which watches the main thread while it runs synchronous tasks and event handlers. Any of them
+	 * that runs for longer than the threshold gets reported, together with a sample of the stack of the main thread.
+	 * A watchdog that was already running is replaced.
+	 *
+	 * @param threshold The time after which a task or event handler is considered to be stuck.
+	 * @param unit      The unit of the threshold.
+	 * @param action    Whether to fail the test or only log a report.
+	 * @return The watchdog that was started.
+	 */
+	@NotNull
+	public MainThreadWatchdog enableWatchdog(long threshold, @NotNull TimeUnit unit,
+	                                         @NotNull MainThreadWatchdog.Action action)
+	{
+		disableWatchdog();
+		MainThreadWatchdog watchdog = new MainThreadWatchdog(mainThread, threshold, unit, action);
+		watchdog.start();
+		scheduler.setWatchdog(watchdog);
+		return watchdog;
+	}
+
+	/**
+	 * Stops the watchdog started by {@link #enableWatchdog(long, TimeUnit, MainThreadWatchdog.Action)}, if any.
+	 */
+	public void disableWatchdog()
+	{
+		MainThreadWatchdog watchdog = scheduler.getWatchdog();
+		if (watchdog != null)
+		{
+			watchdog.stop();
+			scheduler.setWatchdog(null);
+		}
+	}
+
+	/**
+	 * Looks for listeners, tasks and services that belong to plugins which are no longer enabled. Disabling a plugin
+	 * removes all of these, so anything found here was registered outside of the normal plugin lifecycle.
+	 *
+	 * @return A report of everything that was leaked.
+	 */
+	@NotNull
+	public LeakReport getLeakReport()
+	{
+		List<RegisteredListener> listeners = new ArrayList<>();
+		for (HandlerList handlerList : HandlerList.getHandlerLists())
+		{
+			for (RegisteredListener listener : handlerList.getRegisteredListeners())
+			{
+				// In parallel mode the handler lists also contain the listeners of the servers of other threads.
+				boolean foreign = MockBukkit.isParallelMode() && !pluginManager.isRegistered(listener.getPlugin());
+				if (!foreign && !listener.getPlugin().isEnabled())
+				{
+					listeners.add(listener);
+				}
+			}
+		}
+
+		List<BukkitTask> tasks = new ArrayList<>();
+		for (BukkitTask task : scheduler.getPendingTasks())
+		{
+			if (task.getOwner() != null && !task.getOwner().isEnabled())
+			{
+				tasks.add(task);
+			}
+		}
+
+		List<RegisteredServiceProvider<?>> services = new ArrayList<>();
+		for (Class<?> service : servicesManager.getKnownServices())
+		{
+			for (RegisteredServiceProvider<?> provider : servicesManager.getRegistrations(service))
+			{
+				if (!provider.getPlugin().isEnabled())
+				{
+					services.add(provider);
+				}
+			}
+		}
+		return new LeakReport(listeners, tasks, services);
+	}
+
 	/**
 	 * Registers an entity so that the server can track it more easily. Should only be used internally.
 	 *
@@ -189,6 +308,17 @@ public class ServerMock extends Server.Spigot implements Server
 		entities.add(entity);
 	}
 
+	/**
+	 * Unregisters an entity which has been removed from the server. Should only be used internally.
+	 *
+	 * @param entity The entity to unregister
+	 */
+	public void unregisterEntity(@NotNull EntityMock entity)
+	{
+		assertMainThread();
+		entities.remove(entity);
+	}
+
 	/**
 	 * Returns a set of entities that exist on the server instance.
 	 *
@@ -1292,15 +1422,23 @@ public class ServerMock extends Server.Spigot implements Server
 	{
 		Validate.notNull(key, "A NamespacedKey must never be null");
 
-		TagRegistry registry = materialTags.get(registryKey);
+		TagRegistry registry = TagRegistry.valueOf(registryKey.toUpperCase(Locale.ROOT));
 		TagWrapperMock tag = new TagWrapperMock(registry, key);
-		registry.getTags().put(key, tag);
+		materialTags.get(registryKey).put(key, tag);
 		return tag;
 	}
 
+	/**
+	 * Adds the {@link Tag Tags} of a {@link TagRegistry} to this server. The server gets its own copy of the registry,
+	 * so {@link Tag Tags} created with {@link #createMaterialTag(NamespacedKey, String, Material...)} never leak into
+	 * servers that are created later. The default {@link Tag Tags} themselves are shared between all servers and
+	 * are read-only.
+	 *
+	 * @param registry The {@link TagRegistry} to add.
+	 */
 	public void addTagRegistry(@NotNull TagRegistry registry)
 	{
-		materialTags.put(registry.getRegistry(), registry);
+		materialTags.put(registry.getRegistry(), new HashMap<>(registry.getTags()));
 	}
 
 	@SuppressWarnings("unchecked")
@@ -1309,11 +1447,11 @@ public class ServerMock extends Server.Spigot implements Server
 	{
 		if (clazz == Material.class)
 		{
-			TagRegistry registry = materialTags.get(registryKey);
+			Map<NamespacedKey, TagWrapperMock> tags = materialTags.get(registryKey);
 
-			if (registry != null)
+			if (tags != null)
 			{
-				Tag<Material> tag = registry.getTags().get(key);
+				Tag<Material> tag = tags.get(key);
 
 				if (tag != null)
 				{
@@ -1471,13 +1609,167 @@ public class ServerMock extends Server.Spigot implements Server
 	}
 
 	/**
-	 * This returns the current time of the {@link Server} in milliseconds
+	 * Gets the number of ticks the server has performed. This is the virtual clock of the server: it only advances
+	 * when the {@link BukkitSchedulerMock} performs a tick, and everything that depends on the passing of time is
+	 * based on it.
+	 *
+	 * @return The current tick of the server.
+	 */
+	public long getCurrentTick()
+	{
+		return scheduler.getCurrentTick();
+	}
+
+	/**
+	 * Performs a single tick of the whole server. Unlike {@link BukkitSchedulerMock#performOneTick()}, which only
+	 * runs scheduled tasks, this runs every {@link TickPhase} in order and calls the pre- and post-tick hooks around
+	 * them.
+	 */
+	public void tick()
+	{
+		tick(1);
+	}
+
+	/**
+	 * Performs a number of full server ticks.
+	 *
+	 * @param ticks The number of ticks to perform.
+	 * @see #tick()
+	 */
+	public void tick(long ticks)
+	{
+		assertMainThread();
+		for (long i = 0; i < ticks; i++)
+		{
+			performServerTick();
+		}
+	}
+
+	private void performServerTick()
+	{
+		long tickStart = System.nanoTime();
+		long tick = getCurrentTick() + 1;
+		for (LongConsumer hook : preTickHooks)
+		{
+			hook.accept(tick);
+		}
+
+		long phaseStart = System.nanoTime();
+		for (TickPhase phase : TickPhase.values())
+		{
+			performPhase(phase);
+			long now = System.nanoTime();
+			tickStatistics.recordPhase(phase, now - phaseStart);
+			phaseStart = now;
+		}
+
+		for (LongConsumer hook : postTickHooks)
+		{
+			hook.accept(tick);
+		}
+		tickStatistics.recordTick(System.nanoTime() - tickStart);
+	}
+
+	private void performPhase(@NotNull TickPhase phase)
+	{
+		switch (phase)
+		{
+		case SCHEDULER:
+			scheduler.performOneTick();
+			break;
+		case WORLDS:
+			for (World world : worlds)
+			{
+				if (world instanceof WorldMock)
+				{
+					((WorldMock) world).tick();
+				}
+			}
+			break;
+		case ENTITIES:
+			// Entities may remove themselves while ticking.
+			for (EntityMock entity : new ArrayList<>(entities))
+			{
+				entity.tick();
+			}
+			break;
+		case POTION_EFFECTS:
+			for (EntityMock entity : entities)
+			{
+				if (entity instanceof LivingEntityMock)
+				{
+					((LivingEntityMock) entity).tickPotionEffects();
+				}
+			}
+			break;
+		default:
+			throw new IllegalStateException("Unknown tick phase " + phase);
+		}
+	}
+
+	/**
+	 * Adds a hook which is called at the start of every tick performed by {@link #tick()}, before any of its phases.
+	 *
+	 * @param hook The hook to add. It receives the number of the tick that is about to be performed.
+	 */
+	public void addPreTickHook(@NotNull LongConsumer hook)
+	{
+		Validate.notNull(hook, "The hook cannot be null");
+		preTickHooks.add(hook);
+	}
+
+	/**
+	 * Removes a hook that was added with {@link #addPreTickHook(LongConsumer)}.
+	 *
+	 * @param hook The hook to remove.
+	 */
+	public void removePreTickHook(@NotNull LongConsumer hook)
+	{
+		preTickHooks.remove(hook);
+	}
+
+	/**
+	 * Adds a hook which is called at the end of every tick performed by {@link #tick()}, after all of its phases.
+	 *
+	 * @param hook The hook to add. It receives the number of the tick that was just performed.
+	 */
+	public void addPostTickHook(@NotNull LongConsumer hook)
+	{
+		Validate.notNull(hook, "The hook cannot be null");
+		postTickHooks.add(hook);
+	}
+
+	/**
+	 * Removes a hook that was added with {@link #addPostTickHook(LongConsumer)}.
+	 *
+	 * @param hook The hook to remove.
+	 */
+	public void removePostTickHook(@NotNull LongConsumer hook)
+	{
+		postTickHooks.remove(hook);
+	}
+
+	/**
+	 * Gets the measurements of the ticks performed by {@link #tick()}.
+	 *
+	 * @return The tick statistics of this server.
+	 */
+	@NotNull
+	public TickStatistics getTickStatistics()
+	{
+		return tickStatistics;
+	}
+
+	/**
+	 * This returns the current time of the {@link Server} in milliseconds. It starts at the real time at which the
+	 * server was created and advances 50 milliseconds with every tick of the {@link BukkitSchedulerMock}.
 	 *
 	 * @return The current {@link Server} time
+	 * @see #getCurrentTick()
 	 */
 	protected long getCurrentServerTime()
 	{
-		return System.currentTimeMillis();
+		return startTime + getCurrentTick() * MILLIS_PER_TICK;
 	}
 
 	@Override
@@ -0,0 +1,85 @@
+package be.seeseemelk.mockbukkit;
+
+import org.jetbrains.annotations.NotNull;
+
+import be.seeseemelk.mockbukkit.tags.TagsMock;
+
+/**
+ * Controls the server template mode. Normally every {@link ServerMock} checks all registries of Bukkit, walks the
+ * tag files and reads {@code logger.properties} again while it is being created. In template mode this only happens
+ * for the first server in the JVM. Every server created after that shares the registries that were built for the
+ * first one, which makes {@link MockBukkit#mock()} a lot cheaper when a test suite creates thousands of servers.
+ * The default tags are shared as read-only objects, but every server gets its own copy of the tag registries, so
+ * tags created with {@link ServerMock#createMaterialTag} in one test are not visible to the next server.
+ * <p>
+ * Template mode can be turned on with {@link #setEnabled(boolean)} or for the whole JVM by setting the system
+ * property {@value #PROPERTY} to {@code true}. Tests that change the logging configuration and expect every server to
+ * reset it should leave it off.
+ */
+public final class ServerTemplate
+{
+	/**
+	 * The system property that turns on template mode.
+	 */
+	public static final String PROPERTY = "mockbukkit.serverTemplate";
+
+	private static volatile boolean enabled = Boolean.getBoolean(PROPERTY);
+	private static boolean built = false;
+
+	private ServerTemplate()
+	{
+		// This class should never be instantiated.
+	}
+
+	/**
+	 * Sets whether servers created from now on are created from the template.
+	 *
+	 * @param enabled {@code true} to share the registries between servers.
+	 */
+	public static void setEnabled(boolean enabled)
+	{
+		ServerTemplate.enabled = enabled;
+	}
+
+	/**
+	 * Checks whether servers are created from the template.
+	 *
+	 * @return {@code true} if servers share their registries.
+	 */
+	public static boolean isEnabled()
+	{
+		return enabled;
+	}
+
+	/**
+	 * Checks whether the template has been built by a server yet.
+	 *
+	 * @return {@code true} if the registries have been built.
+	 */
+	public static synchronized boolean isBuilt()
+	{
+		return built;
+	}
+
+	/**
+	 * Prepares a new server. The first server builds the template, any later server only gets the tag registries of
+	 * the template attached to it.
+	 *
+	 * @param server The server that is being created.
+	 */
+	static synchronized void apply(@NotNull ServerMock server)
+	{
+		if (!built)
+		{
+			server.loadRegistries();
+			server.readLoggerConfiguration();
+			built = true;
+		}
+		else
+		{
+			// The default tags are already loaded, so the server only gets its own copy of the registries here.
+			TagsMock.loadDefaultTags(server, true);
+		}
+	}
+
+}
@@ -0,0 +1,24 @@
+package be.seeseemelk.mockbukkit;
+
+/**
+ * The phases of a single server tick as performed by {@link ServerMock#tick()}, in the order in which they are run.
+ */
+public enum TickPhase
+{
+	/**
+	 * Runs the tasks which are due on the scheduler and advances the clock of the server.
+	 */
+	SCHEDULER,
+	/**
+	 * Advances the weather of every world. The time of a world follows the clock of the server by itself.
+	 */
+	WORLDS,
+	/**
+	 * Ticks every entity: the amount of ticks they have lived, fire ticks, pickup delays and item despawning.
+	 */
+	ENTITIES,
+	/**
+	 * Removes the potion effects which have run out from every living entity.
+	 */
+	POTION_EFFECTS
+}
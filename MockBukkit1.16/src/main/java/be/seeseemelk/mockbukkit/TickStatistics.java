@@ -0,0 +1,118 @@
+package be.seeseemelk.mockbukkit;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Keeps track of how much real time the ticks performed by {@link ServerMock#tick()} took, both in total and per
+ * {@link TickPhase}. This makes it possible to see how many ticks per second a soak test reaches and where the time
+ * is spent.
+ */
+public class TickStatistics
+{
+	private final Map<TickPhase, Long> phaseNanos = new EnumMap<>(TickPhase.class);
+	private long ticks;
+	private long totalNanos;
+	private long maxTickNanos;
+
+	synchronized void recordPhase(@NotNull TickPhase phase, long nanos)
+	{
+		phaseNanos.merge(phase, nanos, Long::sum);
+	}
+
+	synchronized void recordTick(long nanos)
+	{
+		ticks++;
+		totalNanos += nanos;
+		maxTickNanos = Math.max(maxTickNanos, nanos);
+	}
+
+	/**
+	 * Gets the number of ticks that were measured.
+	 *
+	 * @return The number of ticks that were measured.
+	 */
+	public synchronized long getTicks()
+	{
+		return ticks;
+	}
+
+	/**
+	 * Gets the total real time spent performing ticks.
+	 *
+	 * @param unit The unit in which to return the time.
+	 * @return The total time spent performing ticks.
+	 */
+	public synchronized long getTotalTime(@NotNull TimeUnit unit)
+	{
+		return unit.convert(totalNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Gets the real time spent in a single phase of all measured ticks.
+	 *
+	 * @param phase The phase to get the time of.
+	 * @param unit  The unit in which to return the time.
+	 * @return The total time spent in the given phase.
+	 */
+	public synchronized long getPhaseTime(@NotNull TickPhase phase, @NotNull TimeUnit unit)
+	{
+		return unit.convert(phaseNanos.getOrDefault(phase, 0L), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Gets the real time the slowest tick took.
+	 *
+	 * @param unit The unit in which to return the time.
+	 * @return The time the slowest tick took.
+	 */
+	public synchronized long getMaxTickTime(@NotNull TimeUnit unit)
+	{
+		return unit.convert(maxTickNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Gets the number of ticks the server managed to perform per second of real time. A real server runs at 20 ticks
+	 * per second.
+	 *
+	 * @return The number of ticks per second, or {@code 0} if no ticks were measured.
+	 */
+	public synchronized double getTicksPerSecond()
+	{
+		if (totalNanos == 0)
+		{
+			return 0;
+		}
+		return ticks * (double) TimeUnit.SECONDS.toNanos(1) / totalNanos;
+	}
+
+	/**
+	 * Clears all measurements.
+	 */
+	public synchronized void reset()
+	{
+		phaseNanos.clear();
+		ticks = 0;
+		totalNanos = 0;
+		maxTickNanos = 0;
+	}
+
+	@Override
+	public synchronized String toString()
+	{
+		StringBuilder builder = new StringBuilder();
+		builder.append(String.format("%d ticks at %.1f ticks/s (max %.3f ms/tick)", ticks, getTicksPerSecond(),
+		                             maxTickNanos / 1_000_000.0));
+		for (TickPhase phase : TickPhase.values())
+		{
+			long nanos = phaseNanos.getOrDefault(phase, 0L);
+			builder.append(String.format("%n  %-14s %10.3f ms (%.1f%%)", phase, nanos / 1_000_000.0,
+			                             totalNanos == 0 ? 0 : nanos * 100.0 / totalNanos));
+		}
+		return builder.toString();
+	}
+
+}
@@ -91,6 +91,7 @@ public class WorldMock implements World
 	private UUID uuid = UUID.randomUUID();
 	private Location spawnLocation;
 	private long fullTime = 0;
+	private long fullTimeTick;
 	private int weatherDuration = 0;
 	private int thunderDuration = 0;
 	private boolean storming = false;
@@ -108,6 +109,7 @@ public class WorldMock implements World
 		this.height = height;
 		this.grassHeight = grassHeight;
 		this.server = MockBukkit.getMock();
+		this.fullTimeTick = getCurrentTick();
 
 		// Set the default gamerule values.
 		gameRules.put(GameRule.ANNOUNCE_ADVANCEMENTS, true);
@@ -639,6 +641,10 @@ public class WorldMock implements World
 	@Override
 	public long getFullTime()
 	{
+		if (Boolean.TRUE.equals(gameRules.get(GameRule.DO_DAYLIGHT_CYCLE)))
+		{
+			return this.fullTime + getCurrentTick() - this.fullTimeTick;
+		}
 		return this.fullTime;
 	}
 
@@ -649,7 +655,35 @@ public class WorldMock implements World
 		this.server.getPluginManager().callEvent(event);
 		if (!event.isCancelled())
 		{
-			this.fullTime += event.getSkipAmount();
+			this.fullTime = this.getFullTime() + event.getSkipAmount();
+			this.fullTimeTick = getCurrentTick();
+		}
+	}
+
+	/**
+	 * Gets the current tick of the server this world belongs to. The time of the world advances along with it as long
+	 * as {@link GameRule#DO_DAYLIGHT_CYCLE} is enabled.
+	 *
+	 * @return The current tick of the server, or {@code 0} if the world was created without a server.
+	 */
+	private long getCurrentTick()
+	{
+		return server == null ? 0 : server.getCurrentTick();
+	}
+
+	/**
+	 * Advances the weather of this world by a single tick. When the weather duration runs out the storm toggles, just
+	 * like on a real server. This is called by {@link ServerMock#tick()}.
+	 */
+	void tick()
+	{
+		if (weatherDuration > 0 && --weatherDuration == 0)
+		{
+			storming = !storming;
+		}
+		if (thunderDuration > 0)
+		{
+			thunderDuration--;
 		}
 	}
 
@@ -1277,6 +1311,12 @@ public class WorldMock implements World
 	@Override
 	public <T> boolean setGameRule(GameRule<T> rule, T newValue)
 	{
+		if (rule == GameRule.DO_DAYLIGHT_CYCLE)
+		{
+			// Freeze the time that has passed so far before the daylight cycle is switched.
+			this.fullTime = getFullTime();
+			this.fullTimeTick = getCurrentTick();
+		}
 		gameRules.put(rule, newValue);
 		return true;
 	}
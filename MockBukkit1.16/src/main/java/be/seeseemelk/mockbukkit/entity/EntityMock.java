@@ -4,6 +4,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
@@ -13,6 +15,7 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.LinkedTransferQueue;
 
+import org.apache.commons.lang.Validate;
 import org.bukkit.Bukkit;
 import org.bukkit.EntityEffect;
 import org.bukkit.Location;
@@ -33,12 +36,14 @@ import org.bukkit.plugin.Plugin;
 import org.bukkit.util.BoundingBox;
 import org.bukkit.util.Vector;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import be.seeseemelk.mockbukkit.ServerMock;
 import be.seeseemelk.mockbukkit.UnimplementedOperationException;
 import be.seeseemelk.mockbukkit.command.MessageTarget;
 import be.seeseemelk.mockbukkit.metadata.MetadataTable;
 import be.seeseemelk.mockbukkit.persistence.PersistentDataContainerMock;
+import be.seeseemelk.mockbukkit.plugin.PluginManagerMock;
 
 public abstract class EntityMock extends Entity.Spigot implements Entity, MessageTarget
 {
@@ -53,10 +58,14 @@ public abstract class EntityMock extends Entity.Spigot implements Entity, Messag
 	private String name = "entity";
 	private final Queue<String> messages = new LinkedTransferQueue<>();
 	private final Set<PermissionAttachment> permissionAttachments = new HashSet<>();
+	private volatile EffectivePermissions effectivePermissions;
+	private Set<String> subscribedPermissions = Collections.emptySet();
 	private Vector velocity = new Vector(0, 0, 0);
 	private float fallDistance;
 	private int fireTicks = -20;
 	private int maxFireTicks = 20;
+	private int ticksLived = 1;
+	private boolean removed = false;
 
 	public EntityMock(@NotNull ServerMock server, @NotNull UUID uuid)
 	{
@@ -255,7 +264,11 @@ public abstract class EntityMock extends Entity.Spigot implements Entity, Messag
 	@Override
 	public void setOp(boolean isOperator)
 	{
-		operator = isOperator;
+		if (operator != isOperator)
+		{
+			operator = isOperator;
+			recalculatePermissions();
+		}
 	}
 
 	@Override
@@ -307,43 +320,51 @@ public abstract class EntityMock extends Entity.Spigot implements Entity, Messag
 		return messages.poll();
 	}
 
+	/**
+	 * Checks whether a permission is set for this entity, either by a default permission of the server or by one of
+	 * its attachments, directly or as the child of a registered permission. Like in Bukkit, this is also {@code true}
+	 * if the permission is explicitly set to {@code false}; use {@link #hasPermission(String)} to check its value.
+	 *
+	 * @param name The name of the permission.
+	 * @return {@code true} if the permission is set, regardless of its value.
+	 */
 	@Override
 	public boolean isPermissionSet(String name)
 	{
-		for (PermissionAttachment attachment : permissionAttachments)
-		{
-			Map<String, Boolean> permissions = attachment.getPermissions();
-
-			if (permissions.containsKey(name) && permissions.get(name).booleanValue())
-			{
-				return true;
-			}
-		}
-		return false;
+		return getEffectivePermissionMap().containsKey(name.toLowerCase(Locale.ENGLISH));
 	}
 
+	/**
+	 * Checks whether a permission is set for this entity, regardless of its value.
+	 *
+	 * @param perm The permission.
+	 * @return {@code true} if the permission is set.
+	 * @see #isPermissionSet(String)
+	 */
 	@Override
 	public boolean isPermissionSet(Permission perm)
 	{
-		return isPermissionSet(perm.getName().toLowerCase(Locale.ENGLISH));
+		return isPermissionSet(perm.getName());
 	}
 
 	@Override
 	public boolean hasPermission(String name)
 	{
-		if (isPermissionSet(name))
+		PermissionAttachmentInfo info = getEffectivePermissionMap().get(name.toLowerCase(Locale.ENGLISH));
+		if (info != null)
 		{
-			return true;
+			return info.getValue();
 		}
 
 		Permission perm = server.getPluginManager().getPermission(name);
-		return perm != null ? hasPermission(perm) : Permission.DEFAULT_PERMISSION.getValue(isOp());
+		return perm != null ? perm.getDefault().getValue(isOp()) : Permission.DEFAULT_PERMISSION.getValue(isOp());
 	}
 
 	@Override
 	public boolean hasPermission(Permission perm)
 	{
-		return isPermissionSet(perm) || perm.getDefault().getValue(isOp());
+		PermissionAttachmentInfo info = getEffectivePermissionMap().get(perm.getName().toLowerCase(Locale.ENGLISH));
+		return info != null ? info.getValue() : perm.getDefault().getValue(isOp());
 	}
 
 	@Override
@@ -359,6 +380,7 @@ public abstract class EntityMock extends Entity.Spigot implements Entity, Messag
 	{
 		PermissionAttachment attachment = new PermissionAttachment(plugin, this);
 		permissionAttachments.add(attachment);
+		recalculatePermissions();
 		return attachment;
 	}
 
@@ -402,26 +424,128 @@ public abstract class EntityMock extends Entity.Spigot implements Entity, Messag
 		}
 	}
 
+	/**
+	 * Recalculates the effective permissions of this entity and, like PermissibleBase, subscribes it to exactly the
+	 * permissions it now holds and to the default permissions of its operator status.
+	 */
 	@Override
 	public void recalculatePermissions()
 	{
+		PluginManagerMock pluginManager = server.getPluginManager();
+		for (String name : subscribedPermissions)
+		{
+			pluginManager.unsubscribeFromPermission(name, this);
+		}
+		pluginManager.unsubscribeFromDefaultPerms(false, this);
+		pluginManager.unsubscribeFromDefaultPerms(true, this);
 
+		EffectivePermissions permissions = calculateEffectivePermissions(pluginManager);
+		subscribedPermissions = permissions.permissions.keySet();
+		for (String name : subscribedPermissions)
+		{
+			pluginManager.subscribeToPermission(name, this);
+		}
+		pluginManager.subscribeToDefaultPerms(permissions.op, this);
+		effectivePermissions = permissions;
 	}
 
-	@Override
-	public Set<PermissionAttachmentInfo> getEffectivePermissions()
+	/**
+	 * Gets the effective permissions of this entity, including the children of registered permissions, keyed by their
+	 * lower-case name. The map is calculated by {@link #recalculatePermissions()}. If permissions were added to or
+	 * removed from the plugin manager since then, it is rebuilt here, but the subscriptions of the entity are only
+	 * changed on the next recalculation.
+	 *
+	 * @return The effective permissions of this entity.
+	 */
+	@NotNull
+	private Map<String, PermissionAttachmentInfo> getEffectivePermissionMap()
 	{
-		HashSet<PermissionAttachmentInfo> permissionAttachmentInfos = new HashSet<>();
+		EffectivePermissions permissions = effectivePermissions;
+		PluginManagerMock pluginManager = server.getPluginManager();
+		if (permissions == null || permissions.version != pluginManager.getPermissionsVersion()
+		        || permissions.op != isOp())
+		{
+			permissions = calculateEffectivePermissions(pluginManager);
+			effectivePermissions = permissions;
+		}
+		return permissions.permissions;
+	}
+
+	/**
+	 * Calculates the effective permissions of this entity the way PermissibleBase does: first the default permissions
+	 * of the server for its operator status, then the permissions set by its attachments, which override the defaults.
+	 *
+	 * @param pluginManager The plugin manager holding the registered permissions.
+	 * @return The effective permissions together with the state they were calculated for.
+	 */
+	@NotNull
+	private EffectivePermissions calculateEffectivePermissions(@NotNull PluginManagerMock pluginManager)
+	{
+		long version = pluginManager.getPermissionsVersion();
+		boolean op = isOp();
+		Map<String, PermissionAttachmentInfo> permissions = new HashMap<>();
+		for (Permission permission : pluginManager.getDefaultPermissions(op))
+		{
+			addEffectivePermissions(pluginManager, permissions, null,
+			                        Collections.singletonMap(permission.getName(), true), false);
+		}
+		for (PermissionAttachment attachment : permissionAttachments)
+		{
+			addEffectivePermissions(pluginManager, permissions, attachment, attachment.getPermissions(), false);
+		}
+		return new EffectivePermissions(Collections.unmodifiableMap(permissions), version, op);
+	}
 
-		for (PermissionAttachment permissionAttachment : permissionAttachments)
+	private void addEffectivePermissions(@NotNull PluginManagerMock pluginManager,
+	                                     @NotNull Map<String, PermissionAttachmentInfo> permissions,
+	                                     @Nullable PermissionAttachment attachment,
+	                                     @NotNull Map<String, Boolean> values, boolean invert)
+	{
+		for (Map.Entry<String, Boolean> entry : values.entrySet())
 		{
-			for (Map.Entry<String, Boolean> entry : permissionAttachment.getPermissions().entrySet())
+			String name = entry.getKey().toLowerCase(Locale.ENGLISH);
+			boolean value = entry.getValue() ^ invert;
+			PermissionAttachmentInfo existing = permissions.get(name);
+			// Attachments override the defaults. Among the defaults, or among the attachments, a permission that is
+			// granted by one wins over one that is denied by another.
+			boolean sameSource = existing != null && (existing.getAttachment() == null) == (attachment == null);
+			if (sameSource && (existing.getValue() || !value))
+			{
+				continue;
+			}
+			permissions.put(name, new PermissionAttachmentInfo(this, name, attachment, value));
+
+			Permission permission = pluginManager.getPermission(name);
+			if (permission != null)
 			{
-				permissionAttachmentInfos.add(new PermissionAttachmentInfo(this, entry.getKey(), permissionAttachment, entry.getValue()));
+				addEffectivePermissions(pluginManager, permissions, attachment, permission.getChildren(), !value);
 			}
 		}
+	}
+
+	@Override
+	public Set<PermissionAttachmentInfo> getEffectivePermissions()
+	{
+		return new HashSet<>(getEffectivePermissionMap().values());
+	}
+
+	/**
+	 * An immutable snapshot of the effective permissions of an entity, published as a whole so that threads checking
+	 * permissions never see a map together with the version of another one.
+	 */
+	private static final class EffectivePermissions
+	{
+		private final Map<String, PermissionAttachmentInfo> permissions;
+		private final long version;
+		private final boolean op;
 
-		return permissionAttachmentInfos;
+		private EffectivePermissions(@NotNull Map<String, PermissionAttachmentInfo> permissions, long version,
+		                             boolean op)
+		{
+			this.permissions = permissions;
+			this.version = version;
+			this.op = op;
+		}
 	}
 
 	@Override
@@ -506,22 +630,20 @@ public abstract class EntityMock extends Entity.Spigot implements Entity, Messag
 	@Override
 	public void remove()
 	{
-		// TODO Auto-generated constructor stub
-		throw new UnimplementedOperationException();
-
+		removed = true;
+		server.unregisterEntity(this);
 	}
 
 	@Override
 	public boolean isDead()
 	{
-		// TODO Auto-generated constructor stub
-		throw new UnimplementedOperationException();
+		return removed;
 	}
 
 	@Override
 	public boolean isValid()
 	{
-		return !isDead();
+		return !removed && !isDead();
 	}
 
 	@Override
@@ -610,16 +732,27 @@ public abstract class EntityMock extends Entity.Spigot implements Entity, Messag
 	@Override
 	public int getTicksLived()
 	{
-		// TODO Auto-generated constructor stub
-		throw new UnimplementedOperationException();
+		return ticksLived;
 	}
 
 	@Override
 	public void setTicksLived(int value)
 	{
-		// TODO Auto-generated constructor stub
-		throw new UnimplementedOperationException();
+		Validate.isTrue(value > 0, "Age must be at least 1 tick");
+		this.ticksLived = value;
+	}
 
+	/**
+	 * Performs a single tick of this entity. This is called by {@link ServerMock#tick()} and can be overridden by
+	 * entities which change over time.
+	 */
+	public void tick()
+	{
+		ticksLived++;
+		if (fireTicks > 0)
+		{
+			fireTicks--;
+		}
 	}
 
 	@Override
@@ -23,6 +23,12 @@ public class ItemEntityMock extends EntityMock implements Item
 	private ItemStack item;
 	private UUID owner;
 
+	/**
+	 * The number of ticks after which a dropped item despawns.
+	 */
+	public static final int DESPAWN_TICKS = 6000;
+	private static final int INFINITE_PICKUP_DELAY = 32767;
+
 	// The default pickup delay
 	private int delay = 10;
 
@@ -61,7 +67,21 @@ public class ItemEntityMock extends EntityMock implements Item
 	@Override
 	public void setPickupDelay(int delay)
 	{
-		this.delay = Math.min(delay, 32767);
+		this.delay = Math.min(delay, INFINITE_PICKUP_DELAY);
+	}
+
+	@Override
+	public void tick()
+	{
+		super.tick();
+		if (delay > 0 && delay != INFINITE_PICKUP_DELAY)
+		{
+			delay--;
+		}
+		if (getTicksLived() >= DESPAWN_TICKS)
+		{
+			remove();
+		}
 	}
 
 	@Override
@@ -323,7 +323,7 @@ public abstract class LivingEntityMock extends EntityMock implements LivingEntit
 		{
 			// Bukkit now allows multiple effects of the same type,
 			// the force/success attributes are now obsolete
-			activeEffects.add(new ActivePotionEffect(effect));
+			activeEffects.add(new ActivePotionEffect(getServer(), effect));
 			return true;
 		}
 		else
@@ -398,6 +398,14 @@ public abstract class LivingEntityMock extends EntityMock implements LivingEntit
 		return effects;
 	}
 
+	/**
+	 * Removes all potion effects which have run out. This is called by {@link ServerMock#tick()}.
+	 */
+	public void tickPotionEffects()
+	{
+		activeEffects.removeIf(ActivePotionEffect::hasExpired);
+	}
+
 	@Override
 	public boolean hasLineOfSight(Entity other)
 	{
@@ -0,0 +1,300 @@
+package be.seeseemelk.mockbukkit.plugin;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.bukkit.event.Event;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The events remembered by the {@link PluginManagerMock}. Next to the events in the order in which they were fired,
+ * the history keeps an index per event class. Looking up the events of one type therefore only visits the events of
+ * that type instead of the whole history.
+ * <p>
+ * Events can be recorded from any thread. Recording only appends the event to a lock-free queue, so asynchronous
+ * events fired from many threads at once do not contend on a lock. The queue is moved into the history whenever the
+ * history is read, or by the recording thread once enough events are waiting.
+ */
+class EventHistory
+{
+	private static final int DRAIN_THRESHOLD = 1024;
+
+	private final Queue<Event> pending = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger pendingCount = new AtomicInteger();
+	private final Lock lock = new ReentrantLock();
+	private final Deque<Entry> entries = new ArrayDeque<>();
+	private final Map<Class<? extends Event>, Deque<Entry>> entriesByClass = new HashMap<>();
+	private volatile EventHistoryPolicy policy = EventHistoryPolicy.keepAll();
+	private long sequence = 0;
+
+	/**
+	 * Sets the policy of the history. Events which the new policy would not keep are forgotten.
+	 *
+	 * @param policy The new policy.
+	 */
+	void setPolicy(@NotNull EventHistoryPolicy policy)
+	{
+		read(() ->
+		{
+			this.policy = policy;
+			entries.removeIf(entry -> !policy.shouldRecord(entry.event.getClass()));
+			entriesByClass.keySet().removeIf(eventClass -> !policy.shouldRecord(eventClass));
+			trim();
+			return null;
+		});
+	}
+
+	@NotNull
+	EventHistoryPolicy getPolicy()
+	{
+		return policy;
+	}
+
+	/**
+	 * Records a fired event if the policy keeps it.
+	 *
+	 * @param event The event that was fired.
+	 */
+	void record(@NotNull Event event)
+	{
+		if (!policy.shouldRecord(event.getClass()))
+		{
+			return;
+		}
+		pending.add(event);
+		// Keep the amount of waiting events bounded even if the history is never read.
+		if (pendingCount.incrementAndGet() > DRAIN_THRESHOLD && lock.tryLock())
+		{
+			try
+			{
+				drain();
+			}
+			finally
+			{
+				lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Moves the waiting events into the history. Must be called while holding the lock.
+	 */
+	private void drain()
+	{
+		EventHistoryPolicy currentPolicy = policy;
+		Event event;
+		while ((event = pending.poll()) != null)
+		{
+			pendingCount.decrementAndGet();
+			// The policy might have changed since the event was queued.
+			if (!currentPolicy.shouldRecord(event.getClass()))
+			{
+				continue;
+			}
+			Entry entry = new Entry(sequence++, event);
+			entries.addLast(entry);
+			entriesByClass.computeIfAbsent(event.getClass(), key -> new ArrayDeque<>()).addLast(entry);
+		}
+		trim();
+	}
+
+	/**
+	 * Runs an operation on the history after all waiting events were moved into it.
+	 *
+	 * @param <T>       The type of the result.
+	 * @param operation The operation to run.
+	 * @return The result of the operation.
+	 */
+	private <T> T read(@NotNull Supplier<T> operation)
+	{
+		lock.lock();
+		try
+		{
+			drain();
+			return operation.get();
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	private void trim()
+	{
+		int capacity = policy.getCapacity();
+		while (entries.size() > capacity)
+		{
+			Entry oldest = entries.pollFirst();
+			Deque<Entry> sameClass = entriesByClass.get(oldest.event.getClass());
+			// Entries are removed in the order in which they were added, so the oldest is also first in its class.
+			sameClass.pollFirst();
+			if (sameClass.isEmpty())
+			{
+				entriesByClass.remove(oldest.event.getClass());
+			}
+		}
+	}
+
+	/**
+	 * Gets a marker for the current position in the history. Only events recorded after this call are counted by
+	 * {@link #count(Class, long)} with this marker.
+	 *
+	 * @return The marker.
+	 */
+	long mark()
+	{
+		return read(() -> sequence);
+	}
+
+	/**
+	 * Counts the events of a class, or one of its sub-classes, that were recorded since a marker and are still kept.
+	 *
+	 * @param eventClass The class of the events to count.
+	 * @param marker     The marker returned by {@link #mark()}, or {@code 0} to count all kept events.
+	 * @return The number of matching events.
+	 */
+	int count(@NotNull Class<? extends Event> eventClass, long marker)
+	{
+		return read(() -> countEntries(eventClass, marker));
+	}
+
+	private int countEntries(@NotNull Class<? extends Event> eventClass, long marker)
+	{
+		int count = 0;
+		for (Map.Entry<Class<? extends Event>, Deque<Entry>> indexed : entriesByClass.entrySet())
+		{
+			if (!eventClass.isAssignableFrom(indexed.getKey()))
+			{
+				continue;
+			}
+			Iterator<Entry> iterator = indexed.getValue().descendingIterator();
+			while (iterator.hasNext() && iterator.next().sequence >= marker)
+			{
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Gets all kept events in the order in which they were fired.
+	 *
+	 * @return The kept events.
+	 */
+	@NotNull
+	List<Event> getEvents()
+	{
+		return read(this::copyEntries);
+	}
+
+	@NotNull
+	private List<Event> copyEntries()
+	{
+		List<Event> events = new ArrayList<>(entries.size());
+		for (Entry entry : entries)
+		{
+			events.add(entry.event);
+		}
+		return events;
+	}
+
+	/**
+	 * Gets all kept events of a class, or one of its sub-classes, in the order in which they were fired.
+	 *
+	 * @param <T>        The type of the events.
+	 * @param eventClass The class of the events.
+	 * @return The kept events of the given class.
+	 */
+	@NotNull
+	<T extends Event> List<T> getEvents(@NotNull Class<T> eventClass)
+	{
+		return read(() -> copyEntries(eventClass));
+	}
+
+	@NotNull
+	private <T extends Event> List<T> copyEntries(@NotNull Class<T> eventClass)
+	{
+		List<Entry> matches = new ArrayList<>();
+		int matchedClasses = 0;
+		for (Map.Entry<Class<? extends Event>, Deque<Entry>> indexed : entriesByClass.entrySet())
+		{
+			if (eventClass.isAssignableFrom(indexed.getKey()))
+			{
+				matches.addAll(indexed.getValue());
+				matchedClasses++;
+			}
+		}
+		if (matchedClasses > 1)
+		{
+			matches.sort(Comparator.comparingLong(entry -> entry.sequence));
+		}
+
+		List<T> events = new ArrayList<>(matches.size());
+		for (Entry entry : matches)
+		{
+			events.add(eventClass.cast(entry.event));
+		}
+		return events;
+	}
+
+	/**
+	 * Checks whether any event of a class, or one of its sub-classes, is kept.
+	 *
+	 * @param eventClass The class of the events.
+	 * @return {@code true} if at least one such event is kept.
+	 */
+	boolean contains(@NotNull Class<? extends Event> eventClass)
+	{
+		return read(() -> containsEntries(eventClass));
+	}
+
+	private boolean containsEntries(@NotNull Class<? extends Event> eventClass)
+	{
+		for (Class<? extends Event> indexed : entriesByClass.keySet())
+		{
+			if (eventClass.isAssignableFrom(indexed))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Forgets all kept events.
+	 */
+	void clear()
+	{
+		read(() ->
+		{
+			entries.clear();
+			entriesByClass.clear();
+			return null;
+		});
+	}
+
+	private static final class Entry
+	{
+		private final long sequence;
+		private final Event event;
+
+		private Entry(long sequence, Event event)
+		{
+			this.sequence = sequence;
+			this.event = event;
+		}
+	}
+
+}
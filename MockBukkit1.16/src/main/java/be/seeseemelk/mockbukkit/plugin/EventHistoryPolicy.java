@@ -0,0 +1,140 @@
+package be.seeseemelk.mockbukkit.plugin;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.event.Event;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Decides which fired events the {@link PluginManagerMock} remembers, and how many of them. By default every event is
+ * kept, which is what most tests want. Load tests that fire millions of events can limit the history to the most
+ * recent events, to a few event types, or turn it off completely.
+ */
+public final class EventHistoryPolicy
+{
+	private static final int UNBOUNDED = -1;
+	private static final EventHistoryPolicy KEEP_ALL = new EventHistoryPolicy(UNBOUNDED, null);
+	private static final EventHistoryPolicy NONE = new EventHistoryPolicy(0, null);
+
+	private final int capacity;
+	private final Set<Class<? extends Event>> types;
+
+	private EventHistoryPolicy(int capacity, @Nullable Set<Class<? extends Event>> types)
+	{
+		this.capacity = capacity;
+		this.types = types;
+	}
+
+	/**
+	 * Keeps every event that is fired. This is the default policy.
+	 *
+	 * @return A policy that keeps every event.
+	 */
+	@NotNull
+	public static EventHistoryPolicy keepAll()
+	{
+		return KEEP_ALL;
+	}
+
+	/**
+	 * Does not keep any events.
+	 *
+	 * @return A policy that keeps no events.
+	 */
+	@NotNull
+	public static EventHistoryPolicy none()
+	{
+		return NONE;
+	}
+
+	/**
+	 * Keeps only the most recent events. Once the history is full, the oldest event is forgotten for every new one.
+	 *
+	 * @param capacity The maximum number of events to keep.
+	 * @return A policy that keeps at most {@code capacity} events.
+	 */
+	@NotNull
+	public static EventHistoryPolicy ringBuffer(int capacity)
+	{
+		return keepAll().withCapacity(capacity);
+	}
+
+	/**
+	 * Keeps only events of the given types, including their sub-types.
+	 *
+	 * @param types The types of events to keep.
+	 * @return A policy that keeps only events of the given types.
+	 */
+	@SafeVarargs
+	@NotNull
+	public static EventHistoryPolicy only(@NotNull Class<? extends Event>... types)
+	{
+		Validate.noNullElements(types, "The event types cannot be null");
+		return new EventHistoryPolicy(UNBOUNDED, Collections.unmodifiableSet(new HashSet<>(Arrays.asList(types))));
+	}
+
+	/**
+	 * Creates a copy of this policy that keeps at most the given number of events.
+	 *
+	 * @param capacity The maximum number of events to keep.
+	 * @return The new policy.
+	 */
+	@NotNull
+	public EventHistoryPolicy withCapacity(int capacity)
+	{
+		Validate.isTrue(capacity >= 0, "The capacity cannot be negative");
+		return new EventHistoryPolicy(capacity, types);
+	}
+
+	/**
+	 * Checks whether the number of kept events is limited.
+	 *
+	 * @return {@code true} if the history has a maximum capacity, {@code false} if it keeps growing.
+	 */
+	public boolean isBounded()
+	{
+		return capacity != UNBOUNDED;
+	}
+
+	/**
+	 * Gets the maximum number of events that are kept.
+	 *
+	 * @return The capacity of the history, or {@link Integer#MAX_VALUE} if it is not bounded.
+	 */
+	public int getCapacity()
+	{
+		return isBounded() ? capacity : Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Checks whether events of a certain class are kept by this policy.
+	 *
+	 * @param eventClass The class of the event.
+	 * @return {@code true} if events of that class are kept, {@code false} if not.
+	 */
+	public boolean shouldRecord(@NotNull Class<? extends Event> eventClass)
+	{
+		if (capacity == 0)
+		{
+			return false;
+		}
+		if (types == null)
+		{
+			return true;
+		}
+		for (Class<? extends Event> type : types)
+		{
+			if (type.isAssignableFrom(eventClass))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,264 @@
+package be.seeseemelk.mockbukkit.plugin;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.RegisteredListener;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Creates the {@link RegisteredListener registered listeners} for the {@link EventHandler} methods of a
+ * {@link Listener}. This replaces {@link org.bukkit.plugin.java.JavaPluginLoader#createRegisteredListeners}, which
+ * calls every handler through reflection.
+ * <p>
+ * The handler methods of a listener class are looked up only once. For every handler, a direct call is generated with
+ * {@link LambdaMetafactory} where possible. Handlers that are not accessible to the generated class are called through
+ * a {@link MethodHandle} instead, and plain reflection is only used when neither of these can be created.
+ */
+final class ListenerExecutorFactory
+{
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+	private static final MethodType INVOKER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+	private static final ClassValue<ListenerMethods> HANDLERS = new ClassValue<ListenerMethods>()
+	{
+		@Override
+		protected ListenerMethods computeValue(Class<?> type)
+		{
+			return findHandlers(type);
+		}
+	};
+
+	private ListenerExecutorFactory()
+	{
+		// Utility class
+	}
+
+	/**
+	 * Creates the registered listeners for all event handlers of a listener.
+	 *
+	 * @param listener The listener.
+	 * @param plugin   The plugin that registers the listener.
+	 * @return The registered listeners, grouped by the event they listen to.
+	 */
+	@NotNull
+	static Map<Class<? extends Event>, Set<RegisteredListener>> createRegisteredListeners(@NotNull Listener listener,
+	        @NotNull Plugin plugin)
+	{
+		ListenerMethods methods = HANDLERS.get(listener.getClass());
+		for (Method method : methods.invalid)
+		{
+			plugin.getLogger().severe(plugin.getDescription().getFullName()
+			                          + " attempted to register an invalid EventHandler method signature \""
+			                          + method.toGenericString() + "\" in " + listener.getClass());
+		}
+
+		Map<Class<? extends Event>, Set<RegisteredListener>> listeners = new HashMap<>();
+		for (HandlerMethod handler : methods.handlers)
+		{
+			RegisteredListener registered = new RegisteredListener(listener, handler, handler.annotation.priority(),
+			        plugin, handler.annotation.ignoreCancelled());
+			listeners.computeIfAbsent(handler.eventClass, key -> new HashSet<>()).add(registered);
+		}
+		return listeners;
+	}
+
+	private static ListenerMethods findHandlers(Class<?> listenerClass)
+	{
+		// Public methods include inherited ones, declared methods include private ones.
+		Set<Method> methods = new LinkedHashSet<>();
+		Collections.addAll(methods, listenerClass.getMethods());
+		Collections.addAll(methods, listenerClass.getDeclaredMethods());
+
+		List<HandlerMethod> handlers = new ArrayList<>();
+		List<Method> invalid = new ArrayList<>();
+		for (Method method : methods)
+		{
+			EventHandler annotation = method.getAnnotation(EventHandler.class);
+			if (annotation == null || method.isBridge() || method.isSynthetic())
+			{
+				continue;
+			}
+			Class<?>[] parameters = method.getParameterTypes();
+			if (parameters.length != 1 || !Event.class.isAssignableFrom(parameters[0]))
+			{
+				// Reported to the plugin every time it registers the listener, like JavaPluginLoader does.
+				invalid.add(method);
+				continue;
+			}
+			Class<? extends Event> eventClass = parameters[0].asSubclass(Event.class);
+			handlers.add(new HandlerMethod(annotation, eventClass, createInvoker(method, eventClass)));
+		}
+		return new ListenerMethods(handlers, invalid);
+	}
+
+	private static HandlerInvoker createInvoker(Method method, Class<? extends Event> eventClass)
+	{
+		try
+		{
+			method.setAccessible(true);
+		}
+		catch (RuntimeException e)
+		{
+			return new ReflectiveInvoker(method);
+		}
+
+		if (canGenerate(method))
+		{
+			try
+			{
+				MethodHandle handle = LOOKUP.unreflect(method);
+				CallSite site = LambdaMetafactory.metafactory(LOOKUP, "invoke",
+				                MethodType.methodType(HandlerInvoker.class), INVOKER_TYPE, handle,
+				                MethodType.methodType(void.class, method.getDeclaringClass(), eventClass));
+				return (HandlerInvoker) site.getTarget().invokeExact();
+			}
+			catch (Throwable e)
+			{
+				// Fall back to a method handle.
+			}
+		}
+
+		try
+		{
+			MethodHandle handle = LOOKUP.unreflect(method);
+			if (Modifier.isStatic(method.getModifiers()))
+			{
+				// Static handlers are still called with the listener, which they ignore.
+				handle = MethodHandles.dropArguments(handle, 0, Object.class);
+			}
+			MethodHandle invoker = handle.asType(INVOKER_TYPE);
+			return (listener, event) -> invoker.invokeExact(listener, event);
+		}
+		catch (IllegalAccessException | RuntimeException e)
+		{
+			return new ReflectiveInvoker(method);
+		}
+	}
+
+	/**
+	 * Checks whether a direct call to a method can be generated. The generated class lives in the class loader of
+	 * MockBukkit, so it can only call public methods of public classes that this class loader can see.
+	 *
+	 * @param method The method to call.
+	 * @return {@code true} if a direct call can be generated.
+	 */
+	private static boolean canGenerate(Method method)
+	{
+		Class<?> declaringClass = method.getDeclaringClass();
+		if (!Modifier.isPublic(method.getModifiers()) || Modifier.isStatic(method.getModifiers())
+		        || !Modifier.isPublic(declaringClass.getModifiers()))
+		{
+			return false;
+		}
+		try
+		{
+			return Class.forName(declaringClass.getName(), false,
+			                     ListenerExecutorFactory.class.getClassLoader()) == declaringClass;
+		}
+		catch (ClassNotFoundException | LinkageError e)
+		{
+			return false;
+		}
+	}
+
+	/**
+	 * Calls a single event handler method.
+	 */
+	@FunctionalInterface
+	interface HandlerInvoker
+	{
+		void invoke(Object listener, Object event) throws Throwable;
+	}
+
+	private static final class ReflectiveInvoker implements HandlerInvoker
+	{
+		private final Method method;
+
+		private ReflectiveInvoker(Method method)
+		{
+			this.method = method;
+		}
+
+		@Override
+		public void invoke(Object listener, Object event) throws Throwable
+		{
+			try
+			{
+				method.invoke(listener, event);
+			}
+			catch (InvocationTargetException e)
+			{
+				throw e.getCause();
+			}
+		}
+	}
+
+	/**
+	 * The event handler methods of a listener class.
+	 */
+	private static final class ListenerMethods
+	{
+		private final List<HandlerMethod> handlers;
+		private final List<Method> invalid;
+
+		private ListenerMethods(List<HandlerMethod> handlers, List<Method> invalid)
+		{
+			this.handlers = Collections.unmodifiableList(handlers);
+			this.invalid = Collections.unmodifiableList(invalid);
+		}
+	}
+
+	private static final class HandlerMethod implements EventExecutor
+	{
+		private final EventHandler annotation;
+		private final Class<? extends Event> eventClass;
+		private final HandlerInvoker invoker;
+
+		private HandlerMethod(EventHandler annotation, Class<? extends Event> eventClass, HandlerInvoker invoker)
+		{
+			this.annotation = annotation;
+			this.eventClass = eventClass;
+			this.invoker = invoker;
+		}
+
+		@Override
+		public void execute(@NotNull Listener listener, @NotNull Event event) throws EventException
+		{
+			// Handlers are also registered for sub-classes of the event they were registered for.
+			if (!eventClass.isInstance(event))
+			{
+				return;
+			}
+			try
+			{
+				invoker.invoke(listener, event);
+			}
+			catch (Throwable e)
+			{
+				throw new EventException(e);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,289 @@
+package be.seeseemelk.mockbukkit.plugin;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.RegisteredListener;
+import org.jetbrains.annotations.NotNull;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * Records how the event handlers called by {@link PluginManagerMock#callEvent(Event)} behave. For every handler, keyed
+ * by plugin, listener class, event type and priority, the profiler keeps the number of calls, the time spent, the
+ * number of times the handler cancelled the event and the number of exceptions it threw.
+ * <p>
+ * Events may be fired from several threads at once, so recording does not take a global lock.
+ *
+ * @see PluginManagerMock#setListenerProfilingEnabled(boolean)
+ */
+public class ListenerProfiler
+{
+	private static final Comparator<HandlerStatistics> BY_TOTAL_TIME = Comparator
+	        .comparingLong(HandlerStatistics::getTotalNanos).reversed();
+
+	private final Map<RegisteredListener, Map<Class<? extends Event>, HandlerStatistics>> statistics =
+	    new ConcurrentHashMap<>();
+
+	/**
+	 * Records a single call of a handler.
+	 *
+	 * @param registration The handler that was called.
+	 * @param event        The event it was called with.
+	 * @param nanos        The time the call took.
+	 * @param cancelled    Whether the handler cancelled the event.
+	 * @param failed       Whether the handler threw an exception.
+	 */
+	void record(@NotNull RegisteredListener registration, @NotNull Event event, long nanos, boolean cancelled,
+	            boolean failed)
+	{
+		statistics.computeIfAbsent(registration, key -> new ConcurrentHashMap<>())
+		.computeIfAbsent(event.getClass(), eventClass -> new HandlerStatistics(registration, eventClass))
+		.add(nanos, cancelled, failed);
+	}
+
+	/**
+	 * Gets the statistics of every handler that was called, sorted by the total time spent in them.
+	 *
+	 * @return The statistics of all handlers, slowest first.
+	 */
+	@NotNull
+	public List<HandlerStatistics> getStatistics()
+	{
+		List<HandlerStatistics> result = new ArrayList<>();
+		for (Map<Class<? extends Event>, HandlerStatistics> perEvent : statistics.values())
+		{
+			result.addAll(perEvent.values());
+		}
+		result.sort(BY_TOTAL_TIME);
+		return result;
+	}
+
+	/**
+	 * Gets the statistics of every handler of a plugin that was called, sorted by the total time spent in them.
+	 *
+	 * @param plugin The plugin.
+	 * @return The statistics of the handlers of the plugin, slowest first.
+	 */
+	@NotNull
+	public List<HandlerStatistics> getStatistics(@NotNull Plugin plugin)
+	{
+		List<HandlerStatistics> result = getStatistics();
+		result.removeIf(handler -> handler.getPlugin() != plugin);
+		return result;
+	}
+
+	/**
+	 * Removes all recorded statistics.
+	 */
+	public void reset()
+	{
+		statistics.clear();
+	}
+
+	/**
+	 * Creates a human readable report of all handlers, slowest first.
+	 *
+	 * @return The report.
+	 */
+	@NotNull
+	public String getReport()
+	{
+		StringBuilder report = new StringBuilder("Listeners:");
+		for (HandlerStatistics handler : getStatistics())
+		{
+			report.append(System.lineSeparator()).append("  ").append(handler);
+		}
+		return report.toString();
+	}
+
+	/**
+	 * Creates a JSON report of all handlers, slowest first.
+	 *
+	 * @return The report as a JSON array.
+	 */
+	@NotNull
+	public JsonArray toJson()
+	{
+		JsonArray array = new JsonArray();
+		for (HandlerStatistics handler : getStatistics())
+		{
+			JsonObject object = new JsonObject();
+			object.addProperty("plugin", handler.getPlugin().getName());
+			object.addProperty("listener", handler.getListenerClass().getName());
+			object.addProperty("event", handler.getEventClass().getName());
+			object.addProperty("priority", handler.getPriority().name());
+			object.addProperty("calls", handler.getCalls());
+			object.addProperty("totalNanos", handler.getTotalNanos());
+			object.addProperty("maxNanos", handler.getMaxNanos());
+			object.addProperty("averageNanos", handler.getAverageNanos());
+			object.addProperty("cancellations", handler.getCancellations());
+			object.addProperty("exceptions", handler.getExceptions());
+			array.add(object);
+		}
+		return array;
+	}
+
+	/**
+	 * The statistics of a single handler for a single type of event.
+	 */
+	public static class HandlerStatistics
+	{
+		private final Plugin plugin;
+		private final Class<?> listenerClass;
+		private final Class<? extends Event> eventClass;
+		private final EventPriority priority;
+		private final LongAdder calls = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+		private final AtomicLong maxNanos = new AtomicLong();
+		private final LongAdder cancellations = new LongAdder();
+		private final LongAdder exceptions = new LongAdder();
+
+		private HandlerStatistics(RegisteredListener registration, Class<? extends Event> eventClass)
+		{
+			this.plugin = registration.getPlugin();
+			this.listenerClass = registration.getListener().getClass();
+			this.eventClass = eventClass;
+			this.priority = registration.getPriority();
+		}
+
+		private void add(long nanos, boolean cancelled, boolean failed)
+		{
+			calls.increment();
+			totalNanos.add(nanos);
+			maxNanos.accumulateAndGet(nanos, Math::max);
+			if (cancelled)
+			{
+				cancellations.increment();
+			}
+			if (failed)
+			{
+				exceptions.increment();
+			}
+		}
+
+		/**
+		 * Gets the plugin that registered the handler.
+		 *
+		 * @return The plugin.
+		 */
+		@NotNull
+		public Plugin getPlugin()
+		{
+			return plugin;
+		}
+
+		/**
+		 * Gets the class of the listener that contains the handler.
+		 *
+		 * @return The listener class.
+		 */
+		@NotNull
+		public Class<?> getListenerClass()
+		{
+			return listenerClass;
+		}
+
+		/**
+		 * Gets the type of event the handler was called with.
+		 *
+		 * @return The event class.
+		 */
+		@NotNull
+		public Class<? extends Event> getEventClass()
+		{
+			return eventClass;
+		}
+
+		/**
+		 * Gets the priority of the handler.
+		 *
+		 * @return The priority.
+		 */
+		@NotNull
+		public EventPriority getPriority()
+		{
+			return priority;
+		}
+
+		/**
+		 * Gets the number of times the handler was called.
+		 *
+		 * @return The number of calls.
+		 */
+		public long getCalls()
+		{
+			return calls.sum();
+		}
+
+		/**
+		 * Gets the total time spent in the handler.
+		 *
+		 * @return The total time in nanoseconds.
+		 */
+		public long getTotalNanos()
+		{
+			return totalNanos.sum();
+		}
+
+		/**
+		 * Gets the longest time a single call took.
+		 *
+		 * @return The maximum time in nanoseconds.
+		 */
+		public long getMaxNanos()
+		{
+			return maxNanos.get();
+		}
+
+		/**
+		 * Gets the average time a single call took.
+		 *
+		 * @return The average time in nanoseconds, or {@code 0} if the handler was never called.
+		 */
+		public long getAverageNanos()
+		{
+			long count = getCalls();
+			return count == 0 ? 0 : getTotalNanos() / count;
+		}
+
+		/**
+		 * Gets the number of times the handler cancelled an event that was not cancelled before.
+		 *
+		 * @return The number of cancellations.
+		 */
+		public long getCancellations()
+		{
+			return cancellations.sum();
+		}
+
+		/**
+		 * Gets the number of times the handler threw an exception.
+		 *
+		 * @return The number of exceptions.
+		 */
+		public long getExceptions()
+		{
+			return exceptions.sum();
+		}
+
+		@Override
+		public String toString()
+		{
+			return String.format("%s %s on %s (%s): %d calls, %.3f ms total, %.3f ms max, %d cancelled, %d failed",
+			                     plugin.getName(), listenerClass.getName(), eventClass.getSimpleName(), priority,
+			                     getCalls(), getTotalNanos() / 1e6, getMaxNanos() / 1e6, getCancellations(),
+			                     getExceptions());
+		}
+	}
+
+}
@@ -0,0 +1,106 @@
+package be.seeseemelk.mockbukkit.plugin;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.bukkit.plugin.InvalidDescriptionException;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Finds the {@code plugin.yml} belonging to a plugin class. The first time a plugin is loaded from a class loader,
+ * every {@code plugin.yml} visible to that class loader is read once and indexed by its {@code main} property. Later
+ * lookups, also those of other servers in the same JVM, only consult that index.
+ */
+final class PluginDescriptionCache
+{
+	private static final Map<ClassLoader, Index> INDEXES = new WeakHashMap<>();
+
+	private PluginDescriptionCache()
+	{
+		// Utility class
+	}
+
+	/**
+	 * Finds the description of a plugin by comparing the {@code main} property of each {@code plugin.yml} to the
+	 * qualified name of the plugin class.
+	 *
+	 * @param pluginClass The main class of the plugin.
+	 * @return The plugin description file.
+	 * @throws IOException                 Thrown when the file can't be found or loaded.
+	 * @throws InvalidDescriptionException If no description matched and a plugin.yml is formatted incorrectly.
+	 */
+	@NotNull
+	static PluginDescriptionFile find(@NotNull Class<? extends JavaPlugin> pluginClass)
+	throws IOException, InvalidDescriptionException
+	{
+		Index index;
+		synchronized (INDEXES)
+		{
+			ClassLoader classLoader = pluginClass.getClassLoader();
+			index = INDEXES.get(classLoader);
+			if (index == null)
+			{
+				index = new Index(classLoader);
+				INDEXES.put(classLoader, index);
+			}
+		}
+		return index.get(pluginClass.getName());
+	}
+
+	/**
+	 * The descriptions visible to a single class loader, keyed by their main class.
+	 */
+	private static class Index
+	{
+		private final Map<String, PluginDescriptionFile> descriptions = new HashMap<>();
+		private IOException ioError;
+		private InvalidDescriptionException descriptionError;
+
+		private Index(@NotNull ClassLoader classLoader) throws IOException
+		{
+			Enumeration<URL> resources = classLoader.getResources("plugin.yml");
+			while (resources.hasMoreElements())
+			{
+				URL url = resources.nextElement();
+				try (InputStream stream = url.openStream())
+				{
+					PluginDescriptionFile description = new PluginDescriptionFile(stream);
+					descriptions.putIfAbsent(description.getMain(), description);
+				}
+				catch (IOException e)
+				{
+					if (ioError == null)
+						ioError = e;
+				}
+				catch (InvalidDescriptionException e)
+				{
+					if (descriptionError == null)
+						descriptionError = e;
+				}
+			}
+		}
+
+		@NotNull
+		private PluginDescriptionFile get(@NotNull String mainClass) throws IOException, InvalidDescriptionException
+		{
+			PluginDescriptionFile description = descriptions.get(mainClass);
+			if (description != null)
+				return description;
+			else if (descriptionError != null)
+				throw descriptionError;
+			else if (ioError != null)
+				throw ioError;
+			throw new FileNotFoundException(
+			    "Could not find file plugin.yml. Maybe forgot to add the 'main' property?");
+		}
+	}
+
+}
@@ -3,27 +3,32 @@ package be.seeseemelk.mockbukkit.plugin;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.net.URL;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.Locale;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Random;
 import java.util.Set;
+import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
@@ -33,6 +38,7 @@ import org.apache.commons.lang.Validate;
 import org.bukkit.command.PluginCommand;
 import org.bukkit.command.PluginCommandUtils;
 import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.event.Cancellable;
 import org.bukkit.event.Event;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.HandlerList;
@@ -58,20 +64,56 @@ import org.bukkit.plugin.java.JavaPluginLoader;
 import org.bukkit.plugin.java.JavaPluginUtils;
 import org.jetbrains.annotations.NotNull;
 
+import be.seeseemelk.mockbukkit.MockBukkit;
 import be.seeseemelk.mockbukkit.ServerMock;
 import be.seeseemelk.mockbukkit.UnimplementedOperationException;
 import be.seeseemelk.mockbukkit.scheduler.BukkitSchedulerMock;
+import be.seeseemelk.mockbukkit.scheduler.MainThreadWatchdog;
+
+import com.google.common.collect.ImmutableSet;
 
 public class PluginManagerMock implements PluginManager
 {
+	/**
+	 * The system property that turns on {@link #setLazyPluginFiles(boolean) lazy plugin files} for every server.
+	 */
+	public static final String LAZY_PLUGIN_FILES_PROPERTY = "mockbukkit.lazyPluginFiles";
+
+	/**
+	 * The handler list of every event class. Handler lists are static, so the reflection needed to find them only has
+	 * to happen once per event class.
+	 */
+	private static final ClassValue<HandlerList> HANDLER_LISTS = new ClassValue<HandlerList>()
+	{
+		@Override
+		protected HandlerList computeValue(Class<?> type)
+		{
+			return findHandlerList(type.asSubclass(Event.class));
+		}
+	};
+
 	private final ServerMock server;
 	private final JavaPluginLoader loader;
 	private final List<Plugin> plugins = new ArrayList<>();
+	private final Map<String, Plugin> pluginsByName = new HashMap<>();
+	private final Set<Plugin> pluginSet = ConcurrentHashMap.newKeySet();
 	private final List<PluginCommand> commands = new ArrayList<>();
-	private final List<Event> events = new ArrayList<>();
+	private final EventHistory events = new EventHistory();
+	private final ListenerProfiler listenerProfiler = new ListenerProfiler();
+	private volatile boolean listenerProfilingEnabled = false;
 	private final List<File> temporaryFiles = new LinkedList<>();
-	private final List<Permission> permissions = new ArrayList<>();
-	private final Map<Permissible, Set<String>> permissionSubscriptions = new HashMap<>();
+	private boolean lazyPluginFiles = Boolean.getBoolean(LAZY_PLUGIN_FILES_PROPERTY);
+	private File lazyPluginRoot;
+	private int lazyPluginCount = 0;
+	private final Map<String, Permission> permissions = new LinkedHashMap<>();
+	private final Map<Boolean, Set<Permission>> defaultPermissions = new HashMap<>();
+	private final Map<String, Set<Permissible>> permissionSubscriptions = new HashMap<>();
+	private final Map<Boolean, Set<Permissible>> defaultPermissionSubscriptions = new HashMap<>();
+	/**
+	 * Guards the permissions and their subscriptions, which permissibles also use from asynchronous threads.
+	 */
+	private final Lock permissionLock = new ReentrantLock();
+	private volatile long permissionsVersion = 0;
 
 	private final List<Class<?>> pluginConstructorTypes = Arrays.asList(JavaPluginLoader.class,
 	        PluginDescriptionFile.class, File.class, File.class);
@@ -81,6 +123,8 @@ public class PluginManagerMock implements PluginManager
 	{
 		this.server = server;
 		loader = new JavaPluginLoader(this.server);
+		defaultPermissions.put(true, new LinkedHashSet<>());
+		defaultPermissions.put(false, new LinkedHashSet<>());
 	}
 
 	/**
@@ -100,6 +144,119 @@ public class PluginManagerMock implements PluginManager
 				e.printStackTrace();
 			}
 		}
+
+		if (lazyPluginRoot != null && lazyPluginRoot.exists())
+		{
+			try
+			{
+				FileUtils.deleteDirectory(lazyPluginRoot);
+			}
+			catch (IOException e)
+			{
+				System.err.println("Could not remove plugin files");
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Sets whether plugins loaded from now on get lazily created files. By default, every plugin that is loaded gets
+	 * its own temporary data folder and an empty plugin jar, which are created straight away. With lazy plugin files
+	 * the data folder and the jar only get a path inside a single temporary directory and nothing is written to disk
+	 * until a plugin actually creates a file there, for instance through {@link JavaPlugin#saveDefaultConfig()} or
+	 * {@link JavaPlugin#saveResource(String, boolean)}. {@link JavaPlugin#getConfig()} works without any file.
+	 * <p>
+	 * Plugins that write to {@link JavaPlugin#getDataFolder()} without creating it first should not use this. It can
+	 * also be turned on for every server by setting the system property {@value #LAZY_PLUGIN_FILES_PROPERTY} to
+	 * {@code true}.
+	 *
+	 * @param lazyPluginFiles {@code true} to only create plugin files when they are needed.
+	 */
+	public void setLazyPluginFiles(boolean lazyPluginFiles)
+	{
+		this.lazyPluginFiles = lazyPluginFiles;
+	}
+
+	/**
+	 * Checks whether plugins get lazily created files.
+	 *
+	 * @return {@code true} if plugin files are only created when they are needed.
+	 * @see #setLazyPluginFiles(boolean)
+	 */
+	public boolean isLazyPluginFiles()
+	{
+		return lazyPluginFiles;
+	}
+
+	/**
+	 * Sets which fired events are remembered for assertions such as {@link #assertEventFired(Class)}. Events that the
+	 * new policy would not keep are forgotten straight away.
+	 *
+	 * @param policy The policy to use.
+	 */
+	public void setEventHistoryPolicy(@NotNull EventHistoryPolicy policy)
+	{
+		Validate.notNull(policy, "The policy cannot be null");
+		events.setPolicy(policy);
+	}
+
+	/**
+	 * Gets the policy which decides which fired events are remembered.
+	 *
+	 * @return The current policy.
+	 */
+	@NotNull
+	public EventHistoryPolicy getEventHistoryPolicy()
+	{
+		return events.getPolicy();
+	}
+
+	/**
+	 * Gets a marker for the current position in the event history. It can be passed to
+	 * {@link #countEventsSince(Class, long)} to only count the events fired after this call.
+	 *
+	 * @return The marker.
+	 */
+	public long markEvents()
+	{
+		return events.mark();
+	}
+
+	/**
+	 * Counts the remembered events of a certain class, or one of its sub-classes, that were fired after a marker was
+	 * taken.
+	 *
+	 * @param eventClass The class of the events to count.
+	 * @param marker     The marker returned by {@link #markEvents()}.
+	 * @return The number of matching events.
+	 */
+	public int countEventsSince(@NotNull Class<? extends Event> eventClass, long marker)
+	{
+		return events.count(eventClass, marker);
+	}
+
+	/**
+	 * Counts the remembered events of a certain class, or one of its sub-classes.
+	 *
+	 * @param eventClass The class of the events to count.
+	 * @return The number of matching events.
+	 */
+	public int countEvents(@NotNull Class<? extends Event> eventClass)
+	{
+		return events.count(eventClass, 0);
+	}
+
+	/**
+	 * Gets the remembered events of a certain class, or one of its sub-classes, in the order in which they were fired.
+	 *
+	 * @param <T>        The type of the events.
+	 * @param eventClass The class of the events.
+	 * @return The matching events.
+	 */
+	@NotNull
+	public <T extends Event> List<T> getFiredEvents(@NotNull Class<T> eventClass)
+	{
+		return events.getEvents(eventClass);
 	}
 
 	/**
@@ -110,7 +267,7 @@ public class PluginManagerMock implements PluginManager
 	 */
 	public void assertEventFired(@NotNull String message, @NotNull Predicate<Event> predicate)
 	{
-		for (Event event : events)
+		for (Event event : events.getEvents())
 		{
 			if (predicate.test(event))
 				return;
@@ -136,12 +293,11 @@ public class PluginManagerMock implements PluginManager
 	 * @param eventClass The class type that the event should be an instance of.
 	 * @param predicate  The predicate to test the event against.
 	 */
-	@SuppressWarnings("unchecked")
 	public <T extends Event> void assertEventFired(String message, Class<T> eventClass, Predicate<T> predicate)
 	{
-		for (Event event : events)
+		for (T event : events.getEvents(eventClass))
 		{
-			if (eventClass.isInstance(event) && predicate.test((T) event))
+			if (predicate.test(event))
 				return;
 		}
 		fail(message);
@@ -166,20 +322,16 @@ public class PluginManagerMock implements PluginManager
 	 */
 	public void assertEventFired(@NotNull Class<? extends Event> eventClass)
 	{
-		assertEventFired("No event of that type has been fired", eventClass::isInstance);
+		if (!events.contains(eventClass))
+		{
+			fail("No event of that type has been fired");
+		}
 	}
 
 	@Override
 	public Plugin getPlugin(@NotNull String name)
 	{
-		for (Plugin plugin : plugins)
-		{
-			if (name.equals(plugin.getName()))
-			{
-				return plugin;
-			}
-		}
-		return null;
+		return pluginsByName.get(name.toLowerCase(Locale.ENGLISH));
 	}
 
 	@Override
@@ -289,6 +441,22 @@ public class PluginManagerMock implements PluginManager
 		return pluginFile;
 	}
 
+	/**
+	 * Gets a unique path for the data folder of a plugin without creating anything on disk. All paths are placed in
+	 * a single temporary directory which is removed by {@link #unload()}.
+	 *
+	 * @param name The name of the plugin.
+	 * @return The path of the data folder.
+	 */
+	private @NotNull File getLazyPluginDirectory(@NotNull String name)
+	{
+		if (lazyPluginRoot == null)
+		{
+			lazyPluginRoot = new File(System.getProperty("java.io.tmpdir"), "MockBukkit-" + UUID.randomUUID());
+		}
+		return new File(lazyPluginRoot, name + "-" + lazyPluginCount++);
+	}
+
 	/**
 	 * Registers a plugin that has already been loaded. This is necessary to register plugins loaded from external jars.
 	 *
@@ -298,6 +466,8 @@ public class PluginManagerMock implements PluginManager
 	{
 		addCommandsFrom(plugin);
 		plugins.add(plugin);
+		pluginSet.add(plugin);
+		pluginsByName.putIfAbsent(plugin.getName().toLowerCase(Locale.ENGLISH), plugin);
 		plugin.onLoad();
 	}
 
@@ -327,10 +497,18 @@ public class PluginManagerMock implements PluginManager
 			Object[] arguments = new Object[types.size()];
 			arguments[0] = loader;
 			arguments[1] = description;
-			arguments[2] = createTemporaryDirectory(
-			                   "MockBukkit-" + description.getName() + "-" + description.getVersion());
-			arguments[3] = createTemporaryPluginFile(
-			                   "MockBukkit-" + description.getName() + "-" + description.getVersion());
+			String name = description.getName() + "-" + description.getVersion();
+			if (lazyPluginFiles)
+			{
+				File directory = getLazyPluginDirectory(name);
+				arguments[2] = directory;
+				arguments[3] = new File(directory.getPath() + ".jar");
+			}
+			else
+			{
+				arguments[2] = createTemporaryDirectory("MockBukkit-" + name);
+				arguments[3] = createTemporaryPluginFile("MockBukkit-" + name);
+			}
 			System.arraycopy(parameters, 0, arguments, 4, parameters.length);
 
 			JavaPlugin plugin = constructor.newInstance(arguments);
@@ -377,28 +555,19 @@ public class PluginManagerMock implements PluginManager
 	}
 
 	/**
-	 * Tries to find the correct plugin.yml for a given plugin. It does this by opening each plugin.yml that it finds
-	 * and comparing the 'main' property to the qualified name of the plugin class.
+	 * Tries to find the correct plugin.yml for a given plugin. The plugin.yml files on the classpath are only read the
+	 * first time and then looked up by their 'main' property.
 	 *
 	 * @param class1 The class that is in a subpackage of where to get the file.
 	 * @return The plugin description file.
 	 * @throws IOException                 Thrown when the file wan't be found or loaded.
 	 * @throws InvalidDescriptionException If the plugin description file is formatted incorrectly.
+	 * @see PluginDescriptionCache
 	 */
 	private PluginDescriptionFile findPluginDescription(Class<? extends JavaPlugin> class1)
 	throws IOException, InvalidDescriptionException
 	{
-		Enumeration<URL> resources = class1.getClassLoader().getResources("plugin.yml");
-		while (resources.hasMoreElements())
-		{
-			URL url = resources.nextElement();
-			PluginDescriptionFile description = new PluginDescriptionFile(url.openStream());
-			String mainClass = description.getMain();
-			if (class1.getName().equals(mainClass))
-				return description;
-		}
-		throw new FileNotFoundException(
-		    "Could not find file plugin.yml. Maybe forgot to add the 'main' property?");
+		return PluginDescriptionCache.find(class1);
 	}
 
 	@Override
@@ -409,12 +578,17 @@ public class PluginManagerMock implements PluginManager
 			throw new IllegalStateException("Asynchronous Events cannot be called on the main Thread.");
 		}
 
-		events.add(event);
+		events.record(event);
 		HandlerList handlers = event.getHandlers();
 		RegisteredListener[] listeners = handlers.getRegisteredListeners();
+		boolean ownListenersOnly = MockBukkit.isParallelMode();
 		for (RegisteredListener l : listeners)
 		{
-			callRegisteredListener(l, event);
+			// Handler lists are shared by the servers of all threads in parallel mode.
+			if (!ownListenersOnly || pluginSet.contains(l.getPlugin()))
+			{
+				callRegisteredListener(l, event);
+			}
 		}
 	}
 
@@ -441,12 +615,23 @@ public class PluginManagerMock implements PluginManager
 		{
 			return;
 		}
+		MainThreadWatchdog watchdog = server.getScheduler().getWatchdog();
+		if (watchdog != null)
+		{
+			watchdog.enter("the " + event.getEventName() + " handler of "
+			               + registration.getListener().getClass().getName(), registration.getPlugin());
+		}
+		boolean profiling = listenerProfilingEnabled;
+		boolean wasCancelled = profiling && isCancelled(event);
+		long start = profiling ? System.nanoTime() : 0L;
+		boolean failed = false;
 		try
 		{
 			registration.callEvent(event);
 		}
 		catch (AuthorNagException ex)
 		{
+			failed = true;
 			Plugin plugin = registration.getPlugin();
 			if (plugin.isNaggable())
 			{
@@ -461,13 +646,61 @@ public class PluginManagerMock implements PluginManager
 		}
 		catch (Throwable ex)
 		{
+			failed = true;
 			String msg = "Could not pass event " + event.getEventName() + " to " + registration.getPlugin().getDescription().getFullName();
 			server.getLogger().log(Level.SEVERE, msg, ex);
 		}
+		finally
+		{
+			if (profiling)
+			{
+				listenerProfiler.record(registration, event, System.nanoTime() - start,
+				                        !wasCancelled && isCancelled(event), failed);
+			}
+			if (watchdog != null)
+			{
+				watchdog.exit();
+			}
+		}
+	}
+
+	private static boolean isCancelled(@NotNull Event event)
+	{
+		return event instanceof Cancellable && ((Cancellable) event).isCancelled();
 	}
 
+	/**
+	 * Sets whether the time spent in every event handler is recorded in the {@link ListenerProfiler}. Profiling is
+	 * disabled by default.
+	 *
+	 * @param enabled {@code true} to profile event handlers, {@code false} to stop profiling them.
+	 */
+	public void setListenerProfilingEnabled(boolean enabled)
+	{
+		listenerProfilingEnabled = enabled;
+	}
 
+	/**
+	 * Checks whether event handlers are being profiled.
+	 *
+	 * @return {@code true} if event handlers are being profiled.
+	 */
+	public boolean isListenerProfilingEnabled()
+	{
+		return listenerProfilingEnabled;
+	}
 
+	/**
+	 * Gets the profiler which records how long event handlers take.
+	 *
+	 * @return The listener profiler.
+	 * @see #setListenerProfilingEnabled(boolean)
+	 */
+	@NotNull
+	public ListenerProfiler getListenerProfiler()
+	{
+		return listenerProfiler;
+	}
 
 	@Override
 	public void enablePlugin(@NotNull Plugin plugin)
@@ -559,33 +792,25 @@ public class PluginManagerMock implements PluginManager
 	@Override
 	public boolean isPluginEnabled(@NotNull String name)
 	{
-		boolean result = false;
-
-		for (Plugin mockedPlugin : plugins)
-		{
-			if (mockedPlugin.getName().equals(name))
-			{
-				result = mockedPlugin.isEnabled();
-			}
-		}
+		Plugin plugin = getPlugin(name);
+		return plugin != null && plugin.isEnabled();
+	}
 
-		return result;
+	/**
+	 * Checks whether a plugin was loaded by this plugin manager, whether it is enabled or not.
+	 *
+	 * @param plugin The plugin to check.
+	 * @return {@code true} if the plugin belongs to this plugin manager.
+	 */
+	public boolean isRegistered(@NotNull Plugin plugin)
+	{
+		return pluginSet.contains(plugin);
 	}
 
 	@Override
 	public boolean isPluginEnabled(Plugin plugin)
 	{
-		boolean result = false;
-
-		for (Plugin mockedPlugin : plugins)
-		{
-			if (mockedPlugin.equals(plugin))
-			{
-				result = plugin.isEnabled();
-			}
-		}
-
-		return result;
+		return plugin != null && pluginSet.contains(plugin) && plugin.isEnabled();
 	}
 
 	@Override
@@ -615,6 +840,8 @@ public class PluginManagerMock implements PluginManager
 	{
 		disablePlugins();
 		plugins.clear();
+		pluginSet.clear();
+		pluginsByName.clear();
 	}
 
 	/**
@@ -635,9 +862,9 @@ public class PluginManagerMock implements PluginManager
 			throw new IllegalPluginAccessException("Plugin attempted to register " + listener + " while not enabled");
 		}
 
-		for (Map.Entry<Class<? extends Event>, Set<RegisteredListener>> entry : plugin.getPluginLoader().createRegisteredListeners(listener, plugin).entrySet())
+		for (Map.Entry<Class<? extends Event>, Set<RegisteredListener>> entry : ListenerExecutorFactory.createRegisteredListeners(listener, plugin).entrySet())
 		{
-			getEventListeners(getRegistrationClass(entry.getKey())).registerAll(entry.getValue());
+			getEventListeners(entry.getKey()).registerAll(entry.getValue());
 		}
 	}
 
@@ -664,6 +891,11 @@ public class PluginManagerMock implements PluginManager
 	}
 
 	private HandlerList getEventListeners(Class<? extends Event> type)
+	{
+		return HANDLER_LISTS.get(type);
+	}
+
+	private static HandlerList findHandlerList(Class<? extends Event> type)
 	{
 		try
 		{
@@ -671,13 +903,17 @@ public class PluginManagerMock implements PluginManager
 			method.setAccessible(true);
 			return (HandlerList) method.invoke(null);
 		}
+		catch (IllegalPluginAccessException e)
+		{
+			throw e;
+		}
 		catch (Exception e)
 		{
 			throw new IllegalPluginAccessException(e.toString());
 		}
 	}
 
-	private Class<? extends Event> getRegistrationClass(Class<? extends Event> clazz)
+	private static Class<? extends Event> getRegistrationClass(Class<? extends Event> clazz)
 	{
 		try
 		{
@@ -708,6 +944,7 @@ public class PluginManagerMock implements PluginManager
 			{
 				JavaPluginUtils.setEnabled((JavaPlugin) plugin, false);
 				callEvent(new PluginDisableEvent(plugin));
+				releasePluginState(plugin);
 			}
 		}
 		else
@@ -716,126 +953,273 @@ public class PluginManagerMock implements PluginManager
 		}
 	}
 
+	/**
+	 * Removes everything a disabled plugin left behind, just like a real server does. Handler lists are static, so
+	 * listeners that are not unregistered stay attached for the rest of the test run.
+	 *
+	 * @param plugin The plugin that was disabled.
+	 */
+	private void releasePluginState(@NotNull Plugin plugin)
+	{
+		server.getScheduler().cancelTasks(plugin);
+		server.getServicesManager().unregisterAll(plugin);
+		HandlerList.unregisterAll(plugin);
+	}
+
 	@Override
 	public Permission getPermission(@NotNull String name)
 	{
-		return permissions.stream().filter(permission -> permission.getName().equals(name)).findFirst().orElse(null);
+		permissionLock.lock();
+		try
+		{
+			return permissions.get(name.toLowerCase(Locale.ENGLISH));
+		}
+		finally
+		{
+			permissionLock.unlock();
+		}
 	}
 
 	@Override
 	public void addPermission(@NotNull Permission perm)
 	{
-		permissions.add(perm);
+		String name = perm.getName().toLowerCase(Locale.ENGLISH);
+		permissionLock.lock();
+		try
+		{
+			if (permissions.containsKey(name))
+			{
+				throw new IllegalArgumentException("The permission " + name + " is already defined!");
+			}
+			permissions.put(name, perm);
+			calculatePermissionDefault(perm);
+			permissionsVersion++;
+		}
+		finally
+		{
+			permissionLock.unlock();
+		}
 	}
 
 	@Override
 	public void removePermission(@NotNull Permission perm)
 	{
-		permissions.remove(perm);
+		removePermission(perm.getName());
 	}
 
 	@Override
 	public void removePermission(@NotNull String name)
 	{
-		// TODO Auto-generated method stub
-		throw new UnimplementedOperationException();
+		permissionLock.lock();
+		try
+		{
+			Permission permission = permissions.remove(name.toLowerCase(Locale.ENGLISH));
+			if (permission != null)
+			{
+				defaultPermissions.get(true).remove(permission);
+				defaultPermissions.get(false).remove(permission);
+				permissionsVersion++;
+			}
+		}
+		finally
+		{
+			permissionLock.unlock();
+		}
 	}
 
 	@Override
 	public @NotNull Set<Permission> getDefaultPermissions(boolean op)
 	{
-		Set<Permission> permissions = new HashSet<>();
-		for (Permission permission : this.permissions)
+		permissionLock.lock();
+		try
+		{
+			return ImmutableSet.copyOf(defaultPermissions.get(op));
+		}
+		finally
 		{
-			PermissionDefault permissionDefault = permission.getDefault();
-			if (permissionDefault == PermissionDefault.TRUE)
-				permissions.add(permission);
-			else if (op && permissionDefault == PermissionDefault.OP)
-				permissions.add(permission);
+			permissionLock.unlock();
 		}
-		return permissions;
 	}
 
 	@Override
 	public void recalculatePermissionDefaults(@NotNull Permission perm)
 	{
+		permissionLock.lock();
+		try
+		{
+			if (perm.equals(permissions.get(perm.getName().toLowerCase(Locale.ENGLISH))))
+			{
+				defaultPermissions.get(true).remove(perm);
+				defaultPermissions.get(false).remove(perm);
+				calculatePermissionDefault(perm);
+				permissionsVersion++;
+			}
+		}
+		finally
+		{
+			permissionLock.unlock();
+		}
+	}
 
+	/**
+	 * Gets a counter that changes every time a permission is added, removed or recalculated. Permissibles use it to
+	 * know when the permissions they cached have to be calculated again.
+	 *
+	 * @return The current version of the registered permissions.
+	 */
+	public long getPermissionsVersion()
+	{
+		return permissionsVersion;
 	}
 
 	/**
-	 * Gets a set of permissions that a {@link Permissible} is subscribed to.
+	 * Adds a permission to the cached sets of default permissions it belongs to. Must be called while holding the
+	 * permission lock.
 	 *
-	 * @param permissible The {@link Permissible} to check.
-	 * @return A {@link Set} of permissions the permissible is subscribed to. Is the {@link Permissible} isn't
-	 *         subscribed to any, returns an empty set.
+	 * @param perm The permission to add.
 	 */
-	private Set<String> getPermissionSubscriptions(Permissible permissible)
+	private void calculatePermissionDefault(@NotNull Permission perm)
 	{
-		if (permissionSubscriptions.containsKey(permissible))
+		PermissionDefault permissionDefault = perm.getDefault();
+		if (permissionDefault == PermissionDefault.OP || permissionDefault == PermissionDefault.TRUE)
 		{
-			return permissionSubscriptions.get(permissible);
+			defaultPermissions.get(true).add(perm);
 		}
-		else
+		if (permissionDefault == PermissionDefault.NOT_OP || permissionDefault == PermissionDefault.TRUE)
 		{
-			Set<String> subscriptions = new HashSet<>();
-			permissionSubscriptions.put(permissible, subscriptions);
-			return subscriptions;
+			defaultPermissions.get(false).add(perm);
 		}
 	}
 
+	/**
+	 * Gets the set of {@link Permissible permissibles} subscribed to a permission. Like on a real server, subscriptions
+	 * do not keep a permissible from being garbage collected. Must be called while holding the permission lock.
+	 *
+	 * @param permission The name of the permission.
+	 * @param create     Whether to create the set if nobody is subscribed yet.
+	 * @return The set of subscribers, or {@code null} if there is none and {@code create} is {@code false}.
+	 */
+	private Set<Permissible> getSubscribers(@NotNull String permission, boolean create)
+	{
+		String name = permission.toLowerCase(Locale.ENGLISH);
+		if (create)
+		{
+			return permissionSubscriptions.computeIfAbsent(name, key -> Collections.newSetFromMap(new WeakHashMap<>()));
+		}
+		return permissionSubscriptions.get(name);
+	}
+
 	@Override
 	public void subscribeToPermission(@NotNull String permission, @NotNull Permissible permissible)
 	{
-		getPermissionSubscriptions(permissible).add(permission);
+		permissionLock.lock();
+		try
+		{
+			getSubscribers(permission, true).add(permissible);
+		}
+		finally
+		{
+			permissionLock.unlock();
+		}
 	}
 
 	@Override
 	public void unsubscribeFromPermission(@NotNull String permission, @NotNull Permissible permissible)
 	{
-		getPermissionSubscriptions(permissible).remove(permission);
+		permissionLock.lock();
+		try
+		{
+			Set<Permissible> subscribers = getSubscribers(permission, false);
+			if (subscribers != null)
+			{
+				subscribers.remove(permissible);
+				if (subscribers.isEmpty())
+				{
+					permissionSubscriptions.remove(permission.toLowerCase(Locale.ENGLISH));
+				}
+			}
+		}
+		finally
+		{
+			permissionLock.unlock();
+		}
 	}
 
 	@Override
 	public @NotNull Set<Permissible> getPermissionSubscriptions(@NotNull String permission)
 	{
-		Set<Permissible> subscriptions = new HashSet<>();
-		for (Entry<Permissible, Set<String>> entry : permissionSubscriptions.entrySet())
+		permissionLock.lock();
+		try
 		{
-			Permissible permissible = entry.getKey();
-			Set<String> permissions = entry.getValue();
-			if (permissions.contains(permission))
-			{
-				subscriptions.add(permissible);
-			}
+			Set<Permissible> subscribers = getSubscribers(permission, false);
+			return subscribers == null ? new HashSet<>() : new HashSet<>(subscribers);
+		}
+		finally
+		{
+			permissionLock.unlock();
 		}
-		return subscriptions;
 	}
 
 	@Override
 	public void subscribeToDefaultPerms(boolean op, @NotNull Permissible permissible)
 	{
-		// TODO Auto-generated method stub
-		throw new UnimplementedOperationException();
+		permissionLock.lock();
+		try
+		{
+			defaultPermissionSubscriptions.computeIfAbsent(op, key -> Collections.newSetFromMap(new WeakHashMap<>()))
+			.add(permissible);
+		}
+		finally
+		{
+			permissionLock.unlock();
+		}
 	}
 
 	@Override
 	public void unsubscribeFromDefaultPerms(boolean op, @NotNull Permissible permissible)
 	{
-		// TODO Auto-generated method stub
-		throw new UnimplementedOperationException();
+		permissionLock.lock();
+		try
+		{
+			Set<Permissible> subscribers = defaultPermissionSubscriptions.get(op);
+			if (subscribers != null)
+			{
+				subscribers.remove(permissible);
+			}
+		}
+		finally
+		{
+			permissionLock.unlock();
+		}
 	}
 
 	@Override
 	public @NotNull Set<Permissible> getDefaultPermSubscriptions(boolean op)
 	{
-		// TODO Auto-generated method stub
-		throw new UnimplementedOperationException();
+		permissionLock.lock();
+		try
+		{
+			Set<Permissible> subscribers = defaultPermissionSubscriptions.get(op);
+			return subscribers == null ? new HashSet<>() : new HashSet<>(subscribers);
+		}
+		finally
+		{
+			permissionLock.unlock();
+		}
 	}
 
 	@Override
 	public @NotNull Set<Permission> getPermissions()
 	{
-		return Collections.unmodifiableSet(new HashSet<>(permissions));
+		permissionLock.lock();
+		try
+		{
+			return Collections.unmodifiableSet(new HashSet<>(permissions.values()));
+		}
+		finally
+		{
+			permissionLock.unlock();
+		}
 	}
 
 	/**
@@ -1,11 +1,11 @@
 package be.seeseemelk.mockbukkit.potion;
 
-import java.util.concurrent.TimeUnit;
-
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.potion.PotionEffect;
 import org.jetbrains.annotations.NotNull;
 
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
 import be.seeseemelk.mockbukkit.entity.LivingEntityMock;
 
 /**
@@ -18,24 +18,48 @@ import be.seeseemelk.mockbukkit.entity.LivingEntityMock;
 public final class ActivePotionEffect
 {
 
+	private final ServerMock server;
 	private final PotionEffect effect;
-	private final long timestamp;
+	private final long startTick;
 
+	/**
+	 * Creates an active effect which is measured in ticks of the server that is currently being mocked.
+	 *
+	 * @param effect The effect that was applied.
+	 * @deprecated Use {@link #ActivePotionEffect(ServerMock, PotionEffect)} instead.
+	 */
+	@Deprecated
 	public ActivePotionEffect(@NotNull PotionEffect effect)
 	{
+		this(MockBukkit.getMock(), effect);
+	}
+
+	public ActivePotionEffect(@NotNull ServerMock server, @NotNull PotionEffect effect)
+	{
+		this.server = server;
 		this.effect = effect;
-		this.timestamp = System.currentTimeMillis();
+		this.startTick = server.getCurrentTick();
 	}
 
 	/**
-	 * This returns whether this {@link PotionEffect} has expired.
+	 * This returns whether this {@link PotionEffect} has expired. The duration of the effect is measured in ticks of
+	 * the {@link ServerMock}.
 	 *
 	 * @return Whether the effect wore off.
 	 */
 	public boolean hasExpired()
 	{
-		int ticks = effect.getDuration() * 20;
-		return ticks < 1 || timestamp + TimeUnit.SECONDS.toMillis(ticks) < System.currentTimeMillis();
+		return getRemainingTicks() < 1;
+	}
+
+	/**
+	 * This returns the number of ticks until this {@link PotionEffect} wears off.
+	 *
+	 * @return The remaining duration in ticks.
+	 */
+	public long getRemainingTicks()
+	{
+		return startTick + effect.getDuration() - server.getCurrentTick();
 	}
 
 	/**
@@ -0,0 +1,23 @@
+package be.seeseemelk.mockbukkit.scheduler;
+
+/**
+ * Decides how the {@link BukkitSchedulerMock} executes asynchronous tasks and asynchronous events.
+ */
+public enum AsyncExecutionPolicy
+{
+	/**
+	 * Every asynchronous task is executed on a thread of its own, as soon as it is due. This is the default.
+	 */
+	THREADED,
+	/**
+	 * Asynchronous tasks are executed one after another on a single worker thread, in the order in which they were
+	 * submitted. They are run at the end of {@link BukkitSchedulerMock#performOneTick()}, which waits until they have
+	 * finished.
+	 */
+	DETERMINISTIC,
+	/**
+	 * Like {@link #DETERMINISTIC}, except that the tasks which are run during a tick are shuffled using a seeded
+	 * pseudo-random generator. The same seed always gives the same order.
+	 */
+	RANDOMIZED
+}
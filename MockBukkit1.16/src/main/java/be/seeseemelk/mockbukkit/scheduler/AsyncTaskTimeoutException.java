@@ -0,0 +1,34 @@
+package be.seeseemelk.mockbukkit.scheduler;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Thrown when asynchronous tasks are still running after the shutdown timeout of the {@link BukkitSchedulerMock} has
+ * passed. The message lists every task that was still running, together with its owner and the stack trace of the
+ * thread it was running on.
+ */
+public class AsyncTaskTimeoutException extends RuntimeException
+{
+	private static final long serialVersionUID = 2937540461585311468L;
+
+	private final transient List<ScheduledTask> runningTasks;
+
+	public AsyncTaskTimeoutException(@NotNull String message, @NotNull List<ScheduledTask> runningTasks)
+	{
+		super(message);
+		this.runningTasks = Collections.unmodifiableList(runningTasks);
+	}
+
+	/**
+	 * Gets the tasks that were still running when the timeout passed.
+	 *
+	 * @return The tasks that did not finish in time.
+	 */
+	public @NotNull List<ScheduledTask> getRunningTasks()
+	{
+		return runningTasks;
+	}
+}
@@ -1,18 +1,35 @@
 package be.seeseemelk.mockbukkit.scheduler;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 import java.util.logging.Logger;
 
 import be.seeseemelk.mockbukkit.MockBukkit;
@@ -27,37 +44,221 @@ import org.bukkit.scheduler.BukkitScheduler;
 import org.bukkit.scheduler.BukkitTask;
 import org.bukkit.scheduler.BukkitWorker;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public class BukkitSchedulerMock implements BukkitScheduler
 {
 	private static final String LOGGER_NAME = "BukkitSchedulerMock";
 	private final ThreadPoolExecutor pool = new ThreadPoolExecutor(0, Integer.MAX_VALUE,
 	        60L, TimeUnit.SECONDS,
-	        new SynchronousQueue<>());
-	private final ExecutorService asyncEventExecutor = Executors.newCachedThreadPool();
+	        new SynchronousQueue<>(), MockBukkit.createServerThreadFactory(Executors.defaultThreadFactory()));
+	private final ExecutorService asyncEventExecutor = Executors.newCachedThreadPool(
+	        MockBukkit.createServerThreadFactory(Executors.defaultThreadFactory()));
 	private final TaskList scheduledTasks = new TaskList();
 	private final AtomicReference<Exception> asyncException = new AtomicReference<>();
+	private final List<LongConsumer> tickListeners = new CopyOnWriteArrayList<>();
+	private final Set<AsyncTaskFuture> runningAsyncTasks = ConcurrentHashMap.newKeySet();
 	private long currentTick = 0;
-	private int id = 0;
+	private final AtomicInteger id = new AtomicInteger();
 	private long executorTimeout = 60000;
-
-	private static Runnable wrapTask(ScheduledTask task)
+	private boolean fastForward = false;
+	private AsyncExecutionPolicy asyncExecutionPolicy = AsyncExecutionPolicy.THREADED;
+	private DeterministicExecutor deterministicExecutor = null;
+	private final SchedulerTimings timings = new SchedulerTimings();
+	private volatile boolean timingsEnabled = false;
+	private volatile MainThreadWatchdog watchdog;
+
+	private Runnable wrapTask(ScheduledTask task)
 	{
 		return () ->
 		{
+			MainThreadWatchdog currentWatchdog = watchdog;
+			if (currentWatchdog != null)
+			{
+				currentWatchdog.enter("task #" + task.getTaskId() + " (" + getRunnableClass(task).getName() + ")",
+				                      task.getOwner());
+			}
 			task.setRunning(true);
-			task.run();
-			task.setRunning(false);
+			long start = timingsEnabled ? System.nanoTime() : 0L;
+			Throwable failure = null;
+			try
+			{
+				task.run();
+			}
+			catch (Throwable e)
+			{
+				failure = e;
+				throw e;
+			}
+			finally
+			{
+				if (timingsEnabled)
+				{
+					timings.record(task, getRunnableClass(task), System.nanoTime() - start);
+				}
+				task.setRunning(false);
+				if (!(task instanceof RepeatingTask))
+				{
+					scheduledTasks.finishTask(task);
+				}
+				if (currentWatchdog != null)
+				{
+					exitWatchdog(currentWatchdog, failure);
+				}
+			}
 		};
 	}
 
 
+	/**
+	 * Tells the watchdog that a task has returned. If the task failed itself, a timeout reported by the watchdog is
+	 * added to the failure of the task instead of replacing it.
+	 *
+	 * @param watchdog The watchdog that watched the task.
+	 * @param failure  The exception thrown by the task, or {@code null} if it completed normally.
+	 */
+	private static void exitWatchdog(@NotNull MainThreadWatchdog watchdog, @Nullable Throwable failure)
+	{
+		try
+		{
+			watchdog.exit();
+		}
+		catch (WatchdogTimeoutException e)
+		{
+			if (failure == null)
+			{
+				throw e;
+			}
+			failure.addSuppressed(e);
+		}
+	}
+
+	/**
+	 * Gets the class of the runnable that was passed to the scheduler for a task.
+	 *
+	 * @param task The task.
+	 * @return The class of the runnable.
+	 */
+	private static Class<?> getRunnableClass(ScheduledTask task)
+	{
+		Runnable runnable = task.getRunnable();
+		if (runnable instanceof AsyncRunnable)
+		{
+			runnable = ((AsyncRunnable) runnable).task;
+		}
+		return runnable == null ? Runnable.class : runnable.getClass();
+	}
+
+	/**
+	 * Sets the watchdog which watches synchronous tasks while they run. The scheduler does not start or stop the
+	 * watchdog itself.
+	 *
+	 * @param watchdog The watchdog to use, or {@code null} to stop watching tasks.
+	 */
+	public void setWatchdog(@Nullable MainThreadWatchdog watchdog)
+	{
+		this.watchdog = watchdog;
+	}
+
+	/**
+	 * Gets the watchdog which watches synchronous tasks while they run.
+	 *
+	 * @return The watchdog, or {@code null} if tasks are not watched.
+	 */
+	@Nullable
+	public MainThreadWatchdog getWatchdog()
+	{
+		return watchdog;
+	}
+
+	/**
+	 * Sets whether the time spent executing tasks is recorded in the {@link SchedulerTimings}. Timings are disabled by
+	 * default.
+	 *
+	 * @param enabled {@code true} to record timings, {@code false} to stop recording them.
+	 */
+	public void setTimingsEnabled(boolean enabled)
+	{
+		timingsEnabled = enabled;
+	}
+
+	/**
+	 * Checks if the time spent executing tasks is being recorded.
+	 *
+	 * @return {@code true} if timings are recorded.
+	 */
+	public boolean isTimingsEnabled()
+	{
+		return timingsEnabled;
+	}
+
+	/**
+	 * Gets the timings recorded while timings were enabled.
+	 *
+	 * @return The timings of this scheduler.
+	 * @see #setTimingsEnabled(boolean)
+	 */
+	public @NotNull SchedulerTimings getTimings()
+	{
+		return timings;
+	}
+
 	public void setShutdownTimeout(long timeout)
 	{
 		this.executorTimeout = timeout;
 	}
 
 
+	/**
+	 * Sets how asynchronous tasks and asynchronous events are executed. Tasks which are still waiting for the
+	 * previous policy are executed first.
+	 *
+	 * @param policy The policy to use.
+	 * @param seed   The seed used to shuffle tasks when the policy is {@link AsyncExecutionPolicy#RANDOMIZED}.
+	 */
+	public void setAsyncExecutionPolicy(@NotNull AsyncExecutionPolicy policy, long seed)
+	{
+		Validate.notNull(policy, "The policy cannot be null");
+		if (deterministicExecutor != null)
+		{
+			deterministicExecutor.runPending();
+			deterministicExecutor.shutdown();
+			deterministicExecutor = null;
+		}
+
+		asyncExecutionPolicy = policy;
+		if (policy == AsyncExecutionPolicy.DETERMINISTIC)
+		{
+			deterministicExecutor = new DeterministicExecutor(null);
+		}
+		else if (policy == AsyncExecutionPolicy.RANDOMIZED)
+		{
+			deterministicExecutor = new DeterministicExecutor(new Random(seed));
+		}
+	}
+
+	/**
+	 * Sets how asynchronous tasks and asynchronous events are executed. A {@link AsyncExecutionPolicy#RANDOMIZED}
+	 * policy uses a seed of {@code 0}.
+	 *
+	 * @param policy The policy to use.
+	 * @see #setAsyncExecutionPolicy(AsyncExecutionPolicy, long)
+	 */
+	public void setAsyncExecutionPolicy(@NotNull AsyncExecutionPolicy policy)
+	{
+		setAsyncExecutionPolicy(policy, 0L);
+	}
+
+	/**
+	 * Gets how asynchronous tasks and asynchronous events are executed.
+	 *
+	 * @return The current policy.
+	 */
+	public @NotNull AsyncExecutionPolicy getAsyncExecutionPolicy()
+	{
+		return asyncExecutionPolicy;
+	}
+
 	/**
 	 * Shuts the scheduler down. Note that this function will throw exception that where thrown by old asynchronous
 	 * tasks.
@@ -66,6 +267,10 @@ public class BukkitSchedulerMock implements BukkitScheduler
 	{
 		waitAsyncTasksFinished();
 		pool.shutdown();
+		if (deterministicExecutor != null)
+		{
+			deterministicExecutor.shutdown();
+		}
 		if (asyncException.get() != null)
 			throw new AsyncTaskException(asyncException.get());
 		asyncEventExecutor.shutdownNow();
@@ -74,7 +279,33 @@ public class BukkitSchedulerMock implements BukkitScheduler
 	public @NotNull Future<?> executeAsyncEvent(Event event)
 	{
 		Validate.notNull(event, "Cannot schedule an Event that is null!");
-		return asyncEventExecutor.submit(() -> MockBukkit.getMock().getPluginManager().callEvent(event));
+		Runnable callEvent = () -> MockBukkit.getMock().getPluginManager().callEvent(event);
+		if (deterministicExecutor != null)
+		{
+			FutureTask<?> future = new FutureTask<>(callEvent, null);
+			deterministicExecutor.execute(future);
+			return future;
+		}
+		return asyncEventExecutor.submit(callEvent);
+	}
+
+	/**
+	 * Executes an asynchronous task according to the current {@link AsyncExecutionPolicy}.
+	 *
+	 * @param task The task to execute.
+	 */
+	private void executeAsync(ScheduledTask task)
+	{
+		AsyncTaskFuture future = new AsyncTaskFuture(task);
+		runningAsyncTasks.add(future);
+		if (deterministicExecutor != null)
+		{
+			deterministicExecutor.execute(future);
+		}
+		else
+		{
+			pool.execute(future);
+		}
 	}
 
 
@@ -89,46 +320,191 @@ public class BukkitSchedulerMock implements BukkitScheduler
 	}
 
 	/**
-	 * Perform one tick on the server.
+	 * Perform one tick on the server. Only the tasks that are due on this tick are visited, so the cost of a tick
+	 * does not depend on the amount of tasks that are scheduled for later ticks.
 	 */
 	public void performOneTick()
 	{
 		currentTick++;
-		List<ScheduledTask> oldTasks = scheduledTasks.getCurrentTaskList();
+		for (LongConsumer listener : tickListeners)
+		{
+			listener.accept(currentTick);
+		}
+		List<ScheduledTask> dueTasks = scheduledTasks.pollDueTasks(currentTick);
+		long syncNanos = 0;
 
-		for (ScheduledTask task : oldTasks)
+		int index = 0;
+		try
 		{
-			if (task.getScheduledTick() == currentTick && !task.isCancelled())
+			for (; index < dueTasks.size(); index++)
 			{
-				if (task.isSync())
+				ScheduledTask task = dueTasks.get(index);
+				if (task.isCancelled())
 				{
-					wrapTask(task).run();
+					continue;
 				}
-				else
+
+				try
 				{
-					pool.submit(wrapTask(task));
+					if (task.isSync())
+					{
+						long start = System.nanoTime();
+						wrapTask(task).run();
+						syncNanos += System.nanoTime() - start;
+					}
+					else
+					{
+						executeAsync(task);
+					}
 				}
-
-				if (task instanceof RepeatingTask && !task.isCancelled())
+				finally
 				{
-					((RepeatingTask) task).updateScheduledTick();
-					scheduledTasks.addTask(task);
+					if (task instanceof RepeatingTask && !task.isCancelled())
+					{
+						((RepeatingTask) task).updateScheduledTick();
+						scheduledTasks.requeueTask(task);
+					}
 				}
 			}
 		}
+		finally
+		{
+			// When a task has thrown, the tasks polled after it have not run yet, so they go back into the queue and
+			// run on the next tick instead of staying registered forever.
+			for (int i = index + 1; i < dueTasks.size(); i++)
+			{
+				scheduledTasks.requeueTask(dueTasks.get(i));
+			}
+		}
+
+		if (timingsEnabled)
+		{
+			timings.recordTick(currentTick, syncNanos);
+		}
+
+		if (deterministicExecutor != null)
+		{
+			deterministicExecutor.runPending();
+		}
 	}
 
 	/**
-	 * Perform a number of ticks on the server.
+	 * Perform a number of ticks on the server. If fast-forwarding is enabled, ticks on which nothing is due are
+	 * skipped.
 	 *
 	 * @param ticks The number of ticks to executed.
+	 * @see #setFastForward(boolean)
 	 */
 	public void performTicks(long ticks)
 	{
-		for (long i = 0; i < ticks; i++)
+		long targetTick = currentTick + ticks;
+		while (currentTick < targetTick)
+		{
+			skipIdleTicks(targetTick - currentTick);
+			performOneTick();
+		}
+	}
+
+	/**
+	 * Performs ticks until the given condition is met. The condition is checked before every tick, so no tick is
+	 * performed if the condition already holds. This also stops when the maximum number of ticks has been performed,
+	 * or when there is no task or tick listener left that could change the outcome of the condition.
+	 *
+	 * @param condition The condition to wait for.
+	 * @param maxTicks  The maximum number of ticks to perform.
+	 * @return The number of ticks that were performed.
+	 */
+	public long performTicksUntil(@NotNull BooleanSupplier condition, long maxTicks)
+	{
+		Validate.notNull(condition, "The condition cannot be null");
+		long startTick = currentTick;
+		while (!condition.getAsBoolean() && currentTick - startTick < maxTicks)
 		{
+			if (tickListeners.isEmpty() && !scheduledTasks.hasQueuedTasks())
+			{
+				break;
+			}
+			skipIdleTicks(maxTicks - (currentTick - startTick));
 			performOneTick();
 		}
+		return currentTick - startTick;
+	}
+
+	/**
+	 * Performs ticks until the given condition is met, or until there is no task or tick listener left that could
+	 * change the outcome of the condition.
+	 *
+	 * @param condition The condition to wait for.
+	 * @return The number of ticks that were performed.
+	 * @see #performTicksUntil(BooleanSupplier, long)
+	 */
+	public long performTicksUntil(@NotNull BooleanSupplier condition)
+	{
+		return performTicksUntil(condition, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Sets whether {@link #performTicks(long)} and {@link #performTicksUntil(BooleanSupplier, long)} may skip over
+	 * ticks on which no task is due. The current tick then jumps straight to the tick before the next due task. Tasks
+	 * are executed exactly as often and in the same order as when stepping one tick at a time. Ticks are never skipped
+	 * while a tick listener is registered, since every tick should be passed to it.
+	 *
+	 * @param fastForward {@code true} to skip idle ticks, {@code false} to perform every tick.
+	 */
+	public void setFastForward(boolean fastForward)
+	{
+		this.fastForward = fastForward;
+	}
+
+	/**
+	 * Checks if idle ticks are skipped.
+	 *
+	 * @return {@code true} if fast-forwarding is enabled.
+	 * @see #setFastForward(boolean)
+	 */
+	public boolean isFastForward()
+	{
+		return fastForward;
+	}
+
+	/**
+	 * Adds a listener which is called at the start of every tick with the number of the new tick, before any task
+	 * due on that tick is executed.
+	 *
+	 * @param listener The listener to add.
+	 */
+	public void addTickListener(@NotNull LongConsumer listener)
+	{
+		Validate.notNull(listener, "The listener cannot be null");
+		tickListeners.add(listener);
+	}
+
+	/**
+	 * Removes a listener that was added with {@link #addTickListener(LongConsumer)}.
+	 *
+	 * @param listener The listener to remove.
+	 */
+	public void removeTickListener(@NotNull LongConsumer listener)
+	{
+		tickListeners.remove(listener);
+	}
+
+	/**
+	 * Moves the current tick forward to the tick right before the next due task, if fast-forwarding is enabled.
+	 *
+	 * @param maxTicks The maximum number of ticks that may still be performed, including the tick after the skip.
+	 */
+	private void skipIdleTicks(long maxTicks)
+	{
+		if (!fastForward || !tickListeners.isEmpty())
+		{
+			return;
+		}
+		long idleTicks = Math.min(scheduledTasks.getNextScheduledTick() - currentTick, maxTicks) - 1;
+		if (idleTicks > 0)
+		{
+			currentTick += idleTicks;
+		}
 	}
 
 	/**
@@ -151,53 +527,147 @@ public class BukkitSchedulerMock implements BukkitScheduler
 	}
 
 	/**
-	 * Waits until all asynchronous tasks have finished executing. If you have an asynchronous task that runs
-	 * indefinitely, this function will never return.
+	 * Gets the number of tasks which are either waiting to be executed or are currently being executed. Tasks that
+	 * have finished or that have been cancelled are not counted.
+	 *
+	 * @return The number of live tasks.
+	 */
+	public int getLiveTaskCount()
+	{
+		return scheduledTasks.tasks.size();
+	}
+
+	/**
+	 * Gets the number of one-shot tasks which have finished executing.
+	 *
+	 * @return The number of completed tasks.
+	 */
+	public long getCompletedTaskCount()
+	{
+		return scheduledTasks.completedCount.get();
+	}
+
+	/**
+	 * Gets the number of tasks which were cancelled before they finished.
+	 *
+	 * @return The number of cancelled tasks.
+	 */
+	public long getCancelledTaskCount()
+	{
+		return scheduledTasks.cancelledCount.get();
+	}
+
+	/**
+	 * Sets how many finished or cancelled tasks are remembered for {@link #getRecentlyFinishedTasks()}. By default no
+	 * history is kept.
+	 *
+	 * @param size The maximum number of tasks to remember, or {@code 0} to disable the history.
+	 */
+	public void setFinishedTaskHistorySize(int size)
+	{
+		scheduledTasks.setFinishedTaskHistorySize(size);
+	}
+
+	/**
+	 * Gets the tasks that have most recently finished or been cancelled, oldest first. The amount of tasks that is
+	 * remembered is set by {@link #setFinishedTaskHistorySize(int)}.
+	 *
+	 * @return The recently finished tasks.
+	 */
+	public @NotNull List<ScheduledTask> getRecentlyFinishedTasks()
+	{
+		return scheduledTasks.getFinishedTasks();
+	}
+
+	/**
+	 * Waits until all asynchronous tasks have finished executing. This returns as soon as the last task has finished.
+	 * If tasks are still running after the shutdown timeout, they are cancelled and interrupted and an
+	 * {@link AsyncTaskTimeoutException} listing them is thrown.
+	 *
+	 * @see #setShutdownTimeout(long)
 	 */
 	public void waitAsyncTasksFinished()
 	{
 		// Cancel repeating tasks so they don't run forever.
-		scheduledTasks.tasks.entrySet().stream()
-				.filter(entry -> entry.getValue() instanceof RepeatingTask)
-				.forEach(entry -> scheduledTasks.cancelTask(entry.getKey()));
+		scheduledTasks.tasks.values().stream()
+				.filter(task -> task instanceof RepeatingTask)
+				.forEach(ScheduledTask::cancel);
 
 		// Make sure all tasks get to execute. (except for repeating asynchronous tasks, they only will fire once)
-		while (scheduledTasks.getScheduledTaskCount() > 0)
+		while (scheduledTasks.hasQueuedTasks())
 		{
 			performOneTick();
 		}
 
+		// Run the asynchronous tasks which are still waiting for a tick.
+		while (deterministicExecutor != null && deterministicExecutor.hasPending())
+		{
+			deterministicExecutor.runPending();
+		}
+
 		// Wait for all tasks to finish executing.
-		long systemTime = System.currentTimeMillis();
-		while (pool.getActiveCount() > 0)
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(executorTimeout);
+		while (!runningAsyncTasks.isEmpty())
 		{
-			try
+			for (AsyncTaskFuture future : runningAsyncTasks)
 			{
-				Thread.sleep(10L);
+				try
+				{
+					future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+					return;
+				}
+				catch (ExecutionException | CancellationException e)
+				{
+					// The task has finished, exceptions of the task itself are reported through asyncException.
+				}
+				catch (TimeoutException e)
+				{
+					throw createTimeoutException();
+				}
+				runningAsyncTasks.remove(future);
 			}
-			catch (InterruptedException e)
+		}
+	}
+
+	/**
+	 * Creates a report of all asynchronous tasks that are still running after the shutdown timeout. The tasks get
+	 * cancelled and their threads are interrupted, so that they get a chance to stop.
+	 *
+	 * @return The exception to throw.
+	 */
+	private AsyncTaskTimeoutException createTimeoutException()
+	{
+		List<ScheduledTask> tasks = new ArrayList<>();
+		StringBuilder report = new StringBuilder();
+		for (AsyncTaskFuture future : runningAsyncTasks)
+		{
+			ScheduledTask task = future.task;
+			Thread thread = future.thread;
+			tasks.add(task);
+			report.append(System.lineSeparator())
+			.append("Task #").append(task.getTaskId())
+			.append(" owned by ").append(task.getOwner() == null ? "no plugin" : task.getOwner().getName());
+			if (thread == null)
 			{
-				Thread.currentThread().interrupt();
-				return;
+				report.append(" has not started yet");
+				continue;
 			}
-			if (System.currentTimeMillis() > (systemTime + executorTimeout))
+			report.append(" is running on thread '").append(thread.getName()).append('\'');
+			for (StackTraceElement element : thread.getStackTrace())
 			{
-				// If a plugin has left a a runnable going and not cancelled it we could call this bad practice.
-				// we should now force interrupt all these runnables forcing them to throw Interrupted Exceptions.
-				// if they handle that
-				for (ScheduledTask task : scheduledTasks.getCurrentTaskList())
-				{
-					if (task.isRunning())
-					{
-						task.cancel();
-						cancelTask(task.getTaskId());
-						throw new RuntimeException("Forced Cancellation of task owned by "
-						                           + task.getOwner().getName());
-					}
-				}
-				pool.shutdownNow();
+				report.append(System.lineSeparator()).append("\tat ").append(element);
 			}
 		}
+
+		tasks.forEach(ScheduledTask::cancel);
+		pool.shutdownNow();
+		runningAsyncTasks.clear();
+		return new AsyncTaskTimeoutException(tasks.size() + " asynchronous task(s) did not finish within "
+		                                     + executorTimeout + "ms:" + report, tasks);
 	}
 
 	@Override
@@ -216,8 +686,8 @@ public class BukkitSchedulerMock implements BukkitScheduler
 	public @NotNull BukkitTask runTaskLater(@NotNull Plugin plugin, @NotNull Runnable task, long delay)
 	{
 		delay = Math.max(delay, 1);
-		ScheduledTask scheduledTask = new ScheduledTask(id++, plugin, true, currentTick + delay, task);
-		scheduledTasks.addTask(scheduledTask);
+		ScheduledTask scheduledTask = new ScheduledTask(id.getAndIncrement(), plugin, true, currentTick + delay, task);
+		scheduledTasks.registerTask(scheduledTask, true);
 		return scheduledTask;
 	}
 
@@ -225,8 +695,8 @@ public class BukkitSchedulerMock implements BukkitScheduler
 	public @NotNull BukkitTask runTaskTimer(@NotNull Plugin plugin, @NotNull Runnable task, long delay, long period)
 	{
 		delay = Math.max(delay, 1);
-		RepeatingTask repeatingTask = new RepeatingTask(id++, plugin, true, currentTick + delay, period, task);
-		scheduledTasks.addTask(repeatingTask);
+		RepeatingTask repeatingTask = new RepeatingTask(id.getAndIncrement(), plugin, true, currentTick + delay, period, task);
+		scheduledTasks.registerTask(repeatingTask, true);
 		return repeatingTask;
 	}
 
@@ -318,55 +788,72 @@ public class BukkitSchedulerMock implements BukkitScheduler
 	@Override
 	public void cancelTasks(@NotNull Plugin plugin)
 	{
-		for (ScheduledTask task : scheduledTasks.getCurrentTaskList())
+		for (ScheduledTask task : scheduledTasks.getTasksOf(plugin))
 		{
-			if (task.getOwner() != null)
-			{
-				if (task.getOwner().equals(plugin))
-				{
-					task.cancel();
-				}
-			}
+			task.cancel();
 		}
 	}
 
 	@Override
 	public boolean isCurrentlyRunning(int taskId)
 	{
-		// TODO Auto-generated method stub
-		throw new UnimplementedOperationException();
+		ScheduledTask task = scheduledTasks.tasks.get(taskId);
+		return task != null && task.isRunning();
 	}
 
 	@Override
 	public boolean isQueued(int taskId)
 	{
-		for (ScheduledTask task : scheduledTasks.getCurrentTaskList())
-		{
-			if (task.getTaskId() == taskId)
-				return !task.isCancelled();
-		}
-		return false;
+		ScheduledTask task = scheduledTasks.tasks.get(taskId);
+		return task != null && !task.isCancelled();
+	}
+
+	/**
+	 * Gets all tasks owned by a plugin that are either waiting to be executed or currently being executed.
+	 *
+	 * @param plugin The plugin that owns the tasks.
+	 * @return The live tasks of the plugin.
+	 */
+	public @NotNull List<BukkitTask> getPendingTasks(@NotNull Plugin plugin)
+	{
+		return new ArrayList<>(scheduledTasks.getTasksOf(plugin));
 	}
 
 	@Override
 	public @NotNull List<BukkitWorker> getActiveWorkers()
 	{
-		// TODO Auto-generated method stub
-		throw new UnimplementedOperationException();
+		List<BukkitWorker> workers = new ArrayList<>();
+		for (AsyncTaskFuture future : runningAsyncTasks)
+		{
+			Thread thread = future.thread;
+			if (thread != null)
+			{
+				workers.add(new BukkitWorkerMock(future.task.getTaskId(), future.task.getOwner(), thread));
+			}
+		}
+		return workers;
 	}
 
 	@Override
 	public @NotNull List<BukkitTask> getPendingTasks()
 	{
-		// TODO Auto-generated method stub
-		throw new UnimplementedOperationException();
+		List<BukkitTask> pending = new ArrayList<>();
+		for (ScheduledTask task : scheduledTasks.tasks.values())
+		{
+			if (!task.isCancelled())
+			{
+				pending.add(task);
+			}
+		}
+		return pending;
 	}
 
 	@Override
 	public @NotNull BukkitTask runTaskAsynchronously(@NotNull Plugin plugin, @NotNull Runnable task)
 	{
-		ScheduledTask scheduledTask = new ScheduledTask(id++, plugin, false, currentTick, new AsyncRunnable(task));
-		pool.execute(wrapTask(scheduledTask));
+		ScheduledTask scheduledTask = new ScheduledTask(id.getAndIncrement(), plugin, false, currentTick, new AsyncRunnable(task));
+		scheduledTasks.registerTask(scheduledTask, false);
+		executeAsync(scheduledTask);
 		return scheduledTask;
 	}
 
@@ -385,9 +872,9 @@ public class BukkitSchedulerMock implements BukkitScheduler
 	@Override
 	public @NotNull BukkitTask runTaskLaterAsynchronously(@NotNull Plugin plugin, @NotNull Runnable task, long delay)
 	{
-		ScheduledTask scheduledTask = new ScheduledTask(id++, plugin, false, currentTick + delay,
+		ScheduledTask scheduledTask = new ScheduledTask(id.getAndIncrement(), plugin, false, currentTick + delay,
 		        new AsyncRunnable(task));
-		scheduledTasks.addTask(scheduledTask);
+		scheduledTasks.registerTask(scheduledTask, true);
 		return scheduledTask;
 	}
 
@@ -400,9 +887,9 @@ public class BukkitSchedulerMock implements BukkitScheduler
 	@Override
 	public @NotNull BukkitTask runTaskTimerAsynchronously(@NotNull Plugin plugin, @NotNull Runnable task, long delay, long period)
 	{
-		RepeatingTask scheduledTask = new RepeatingTask(id++, plugin, false, currentTick + delay, period,
+		RepeatingTask scheduledTask = new RepeatingTask(id.getAndIncrement(), plugin, false, currentTick + delay, period,
 		        new AsyncRunnable(task));
-		scheduledTasks.addTask(scheduledTask);
+		scheduledTasks.registerTask(scheduledTask, true);
 		return scheduledTask;
 	}
 
@@ -412,6 +899,42 @@ public class BukkitSchedulerMock implements BukkitScheduler
 		return runTaskTimerAsynchronously(plugin, (Runnable) task, delay, period);
 	}
 
+	/**
+	 * Keeps track of a single execution of an asynchronous task, so that it is possible to wait for it to finish and
+	 * to find out on which thread it is running.
+	 */
+	private final class AsyncTaskFuture extends FutureTask<Void>
+	{
+		private final ScheduledTask task;
+		private volatile Thread thread;
+
+		private AsyncTaskFuture(ScheduledTask task)
+		{
+			super(wrapTask(task), null);
+			this.task = task;
+		}
+
+		@Override
+		public void run()
+		{
+			thread = Thread.currentThread();
+			try
+			{
+				super.run();
+			}
+			finally
+			{
+				thread = null;
+			}
+		}
+
+		@Override
+		protected void done()
+		{
+			runningAsyncTasks.remove(this);
+		}
+	}
+
 	class AsyncRunnable implements Runnable
 	{
 		private final Runnable task;
@@ -485,66 +1008,243 @@ public class BukkitSchedulerMock implements BukkitScheduler
 
 	private static class TaskList
 	{
+		private static final Comparator<ScheduledTask> EXECUTION_ORDER = Comparator
+		        .comparingLong(ScheduledTask::getScheduledTick).thenComparingInt(ScheduledTask::getTaskId);
+		private static final int MIN_STALE_ENTRIES_TO_PURGE = 64;
 
 		private final Map<Integer, ScheduledTask> tasks;
+		private final Map<Plugin, Set<ScheduledTask>> tasksByPlugin;
+		private final PriorityQueue<ScheduledTask> queue;
+		private final Set<ScheduledTask> queuedTasks;
+		private final Set<ScheduledTask> staleTasks;
+		private final Deque<ScheduledTask> finishedTasks;
+		private final AtomicLong completedCount;
+		private final AtomicLong cancelledCount;
+		private int finishedTaskHistorySize;
 
 		private TaskList()
 		{
 			tasks = new ConcurrentHashMap<>();
+			tasksByPlugin = new ConcurrentHashMap<>();
+			queue = new PriorityQueue<>(EXECUTION_ORDER);
+			queuedTasks = Collections.newSetFromMap(new IdentityHashMap<>());
+			staleTasks = Collections.newSetFromMap(new IdentityHashMap<>());
+			finishedTasks = new ArrayDeque<>();
+			completedCount = new AtomicLong();
+			cancelledCount = new AtomicLong();
+		}
+
+		/**
+		 * Registers a new task. The task stays in the list until it has finished or until it gets cancelled.
+		 *
+		 * @param task   The task to register.
+		 * @param queued {@code true} if the task should be executed by a later tick, {@code false} if it gets
+		 *               executed right away.
+		 */
+		private void registerTask(ScheduledTask task, boolean queued)
+		{
+			tasks.put(task.getTaskId(), task);
+			if (task.getOwner() != null)
+			{
+				tasksByPlugin.compute(task.getOwner(), (plugin, pluginTasks) ->
+				{
+					Set<ScheduledTask> result = pluginTasks == null ? ConcurrentHashMap.newKeySet() : pluginTasks;
+					result.add(task);
+					return result;
+				});
+			}
+			task.addOnCancelled(() -> onCancelled(task));
+			if (queued)
+			{
+				requeueTask(task);
+			}
+		}
+
+		/**
+		 * Puts an already registered task back in the queue, for instance after a repeating task has been executed.
+		 *
+		 * @param task The task to queue.
+		 */
+		private synchronized void requeueTask(ScheduledTask task)
+		{
+			if (!task.isCancelled() && queuedTasks.add(task))
+			{
+				queue.add(task);
+			}
+		}
+
+		/**
+		 * Removes every task that is scheduled to run at or before the given tick from the queue. The tasks are
+		 * returned in the order in which they should be executed. Cancelled tasks are included and should be skipped
+		 * by the caller.
+		 *
+		 * @param tick The tick that is being performed.
+		 * @return The tasks that are due.
+		 */
+		private synchronized List<ScheduledTask> pollDueTasks(long tick)
+		{
+			if (queue.isEmpty() || queue.peek().getScheduledTick() > tick)
+			{
+				return Collections.emptyList();
+			}
+			List<ScheduledTask> due = new ArrayList<>();
+			while (!queue.isEmpty() && queue.peek().getScheduledTick() <= tick)
+			{
+				due.add(pollQueue());
+			}
+			return due;
+		}
+
+		/**
+		 * Gets the tick at which the next task in the queue is scheduled to run.
+		 *
+		 * @return The tick of the next task, or {@link Long#MAX_VALUE} if there is no task left.
+		 */
+		private synchronized long getNextScheduledTick()
+		{
+			while (!queue.isEmpty() && queue.peek().isCancelled())
+			{
+				pollQueue();
+			}
+			return queue.isEmpty() ? Long.MAX_VALUE : queue.peek().getScheduledTick();
+		}
+
+		/**
+		 * Checks if there are tasks left in the queue which have not been cancelled.
+		 *
+		 * @return {@code true} if a later tick still has a task to execute.
+		 */
+		private synchronized boolean hasQueuedTasks()
+		{
+			return queue.size() > staleTasks.size();
 		}
 
 		/**
-		 * Add a task but locks the Task list to other writes while adding it.
+		 * Takes the first task out of the queue.
 		 *
-		 * @param task the task to remove.
-		 * @return true on success.
+		 * @return The task that was polled.
 		 */
-		private boolean addTask(ScheduledTask task)
+		private ScheduledTask pollQueue()
 		{
-			if (task == null)
+			ScheduledTask task = queue.poll();
+			queuedTasks.remove(task);
+			staleTasks.remove(task);
+			return task;
+		}
+
+		/**
+		 * Removes a task which has finished executing.
+		 *
+		 * @param task The task that has finished.
+		 */
+		private void finishTask(ScheduledTask task)
+		{
+			if (removeTask(task))
+			{
+				completedCount.incrementAndGet();
+				addToHistory(task);
+			}
+		}
+
+		private void onCancelled(ScheduledTask task)
+		{
+			if (removeTask(task))
+			{
+				cancelledCount.incrementAndGet();
+				addToHistory(task);
+				purgeCancelledTasks(task);
+			}
+		}
+
+		private boolean removeTask(ScheduledTask task)
+		{
+			if (!tasks.remove(task.getTaskId(), task))
 			{
 				return false;
 			}
-			tasks.put(task.getTaskId(), task);
+			if (task.getOwner() != null)
+			{
+				tasksByPlugin.computeIfPresent(task.getOwner(), (plugin, pluginTasks) ->
+				{
+					pluginTasks.remove(task);
+					return pluginTasks.isEmpty() ? null : pluginTasks;
+				});
+			}
 			return true;
 		}
 
+		/**
+		 * Gets the live tasks owned by a plugin.
+		 *
+		 * @param plugin The plugin.
+		 * @return A copy of the tasks of the plugin.
+		 */
+		private List<ScheduledTask> getTasksOf(Plugin plugin)
+		{
+			Set<ScheduledTask> pluginTasks = plugin == null ? null : tasksByPlugin.get(plugin);
+			return pluginTasks == null ? Collections.emptyList() : new ArrayList<>(pluginTasks);
+		}
 
-		protected final List<ScheduledTask> getCurrentTaskList()
+		/**
+		 * Cancelled tasks are left in the queue until they are polled. Once they make up the majority of the queue
+		 * they are removed all at once, so that cancelled tasks scheduled far in the future do not pile up.
+		 *
+		 * @param task The task that has just been cancelled.
+		 */
+		private synchronized void purgeCancelledTasks(ScheduledTask task)
 		{
-			List<ScheduledTask> out = new ArrayList<>();
-			if (tasks.size() != 0)
+			if (!queuedTasks.contains(task))
 			{
-				out.addAll(tasks.values());
+				// Running tasks and tasks that have already been polled do not leave an entry behind.
+				return;
+			}
+			staleTasks.add(task);
+			if (staleTasks.size() >= MIN_STALE_ENTRIES_TO_PURGE && staleTasks.size() > queue.size() / 2)
+			{
+				queue.removeIf(ScheduledTask::isCancelled);
+				queuedTasks.removeIf(ScheduledTask::isCancelled);
+				staleTasks.clear();
 			}
-			return out;
-
 		}
 
-		protected int getScheduledTaskCount()
+		private synchronized void addToHistory(ScheduledTask task)
 		{
-			int scheduled = 0;
-			if (tasks.size() == 0)
+			if (finishedTaskHistorySize <= 0)
 			{
-				return 0;
+				return;
 			}
+			if (finishedTasks.size() >= finishedTaskHistorySize)
+			{
+				finishedTasks.removeFirst();
+			}
+			finishedTasks.addLast(task);
+		}
 
-			for (ScheduledTask task : tasks.values())
+		private synchronized void setFinishedTaskHistorySize(int size)
+		{
+			finishedTaskHistorySize = size;
+			while (finishedTasks.size() > Math.max(size, 0))
 			{
-				if (task.isCancelled() || task.isRunning())
-					continue;
-				scheduled++;
+				finishedTasks.removeFirst();
 			}
-			return scheduled;
+		}
+
+		private synchronized List<ScheduledTask> getFinishedTasks()
+		{
+			return new ArrayList<>(finishedTasks);
+		}
+
+		protected final List<ScheduledTask> getCurrentTaskList()
+		{
+			return new ArrayList<>(tasks.values());
 		}
 
 		protected boolean cancelTask(int taskID)
 		{
-			if (tasks.containsKey(taskID))
+			ScheduledTask task = tasks.get(taskID);
+			if (task != null)
 			{
-				ScheduledTask task = tasks.get(taskID);
 				task.cancel();
-				tasks.put(taskID, task);
 				return true;
 			}
 			return false;
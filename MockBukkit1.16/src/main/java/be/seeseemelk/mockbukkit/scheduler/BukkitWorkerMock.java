@@ -0,0 +1,40 @@
+package be.seeseemelk.mockbukkit.scheduler;
+
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitWorker;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A snapshot of a thread that is executing an asynchronous task of the {@link BukkitSchedulerMock}.
+ */
+public class BukkitWorkerMock implements BukkitWorker
+{
+	private final int taskId;
+	private final Plugin owner;
+	private final Thread thread;
+
+	public BukkitWorkerMock(int taskId, Plugin owner, @NotNull Thread thread)
+	{
+		this.taskId = taskId;
+		this.owner = owner;
+		this.thread = thread;
+	}
+
+	@Override
+	public int getTaskId()
+	{
+		return taskId;
+	}
+
+	@Override
+	public @NotNull Plugin getOwner()
+	{
+		return owner;
+	}
+
+	@Override
+	public @NotNull Thread getThread()
+	{
+		return thread;
+	}
+}
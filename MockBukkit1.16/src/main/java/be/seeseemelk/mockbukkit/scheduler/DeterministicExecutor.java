@@ -0,0 +1,147 @@
+package be.seeseemelk.mockbukkit.scheduler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+
+/**
+ * An {@link Executor} that collects tasks and only runs them when {@link #runPending()} is called. The tasks are run
+ * one after another on a single worker thread, so that they are never executed on the main thread but still in a
+ * reproducible order.
+ */
+class DeterministicExecutor implements Executor
+{
+	private final List<Runnable> pending = new ArrayList<>();
+	private final Random random;
+	private ExecutorService worker;
+	private volatile Thread workerThread;
+
+	/**
+	 * Creates a new executor.
+	 *
+	 * @param random The random generator used to shuffle the tasks of every batch, or {@code null} to run them in the
+	 *               order in which they were submitted.
+	 */
+	DeterministicExecutor(@Nullable Random random)
+	{
+		this.random = random;
+	}
+
+	@Override
+	public synchronized void execute(@NotNull Runnable command)
+	{
+		pending.add(command);
+	}
+
+	/**
+	 * Checks if there are tasks waiting to be run.
+	 *
+	 * @return {@code true} if there are tasks waiting.
+	 */
+	synchronized boolean hasPending()
+	{
+		return !pending.isEmpty();
+	}
+
+	/**
+	 * Runs all tasks that were submitted before this call and waits until they have finished. Tasks submitted by those
+	 * tasks are kept for the next call.
+	 */
+	void runPending()
+	{
+		List<Runnable> batch;
+		synchronized (this)
+		{
+			if (pending.isEmpty())
+			{
+				return;
+			}
+			batch = new ArrayList<>(pending);
+			pending.clear();
+		}
+
+		if (random != null)
+		{
+			Collections.shuffle(batch, random);
+		}
+
+		if (Thread.currentThread() == workerThread)
+		{
+			runBatch(batch);
+			return;
+		}
+
+		Future<?> future = getWorker().submit(() -> runBatch(batch));
+		try
+		{
+			future.get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		catch (ExecutionException e)
+		{
+			Throwable cause = e.getCause();
+			if (cause instanceof Error)
+			{
+				throw (Error) cause;
+			}
+			throw new AsyncTaskException((Exception) cause);
+		}
+	}
+
+	private static void runBatch(List<Runnable> batch)
+	{
+		for (Runnable task : batch)
+		{
+			try
+			{
+				task.run();
+			}
+			catch (CancellationException e)
+			{
+				// The task was cancelled before it got to run.
+			}
+		}
+	}
+
+	private synchronized ExecutorService getWorker()
+	{
+		if (worker == null)
+		{
+			worker = Executors.newSingleThreadExecutor(MockBukkit.createServerThreadFactory(runnable ->
+			{
+				workerThread = new Thread(runnable, "MockBukkit Async Worker");
+				workerThread.setDaemon(true);
+				return workerThread;
+			}));
+		}
+		return worker;
+	}
+
+	/**
+	 * Stops the worker thread. Tasks which have not been run yet are discarded.
+	 */
+	synchronized void shutdown()
+	{
+		pending.clear();
+		if (worker != null)
+		{
+			worker.shutdownNow();
+			worker = null;
+		}
+	}
+}
@@ -0,0 +1,236 @@
+package be.seeseemelk.mockbukkit.scheduler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Watches the main thread while it runs plugin code, such as a synchronous task or an event handler. Much like the
+ * watchdog of a real server, a background thread checks how long the current piece of work has been running. Once it
+ * exceeds the threshold, the stack of the main thread is sampled and a report naming the owning plugin is written to
+ * the log.
+ * <p>
+ * With {@link Action#FAIL}, the main thread is also interrupted and a {@link WatchdogTimeoutException} is thrown as
+ * soon as the offending work returns. A task which never returns cannot be stopped, but the report is still logged
+ * straight away instead of the test silently hanging until the build kills it.
+ */
+public class MainThreadWatchdog
+{
+	/**
+	 * What the watchdog does when work on the main thread takes too long.
+	 */
+	public enum Action
+	{
+		/**
+		 * Log a report and fail the test once the work returns.
+		 */
+		FAIL,
+		/**
+		 * Only log a report.
+		 */
+		REPORT
+	}
+
+	private static final Logger LOGGER = Logger.getLogger("MockBukkit Watchdog");
+
+	private final Thread watchedThread;
+	private final long thresholdNanos;
+	private final Action action;
+	private final List<String> reports = Collections.synchronizedList(new ArrayList<>());
+	private volatile Work current;
+	private volatile Thread watchdogThread;
+
+	/**
+	 * Creates a new watchdog. The watchdog only starts watching once {@link #start()} is called.
+	 *
+	 * @param watchedThread The thread to watch, usually the main thread of the server.
+	 * @param threshold     The time after which work is considered to be stuck.
+	 * @param unit          The unit of the threshold.
+	 * @param action        What to do with work that is stuck.
+	 */
+	public MainThreadWatchdog(@NotNull Thread watchedThread, long threshold, @NotNull TimeUnit unit,
+	                          @NotNull Action action)
+	{
+		Validate.notNull(watchedThread, "The watched thread cannot be null");
+		Validate.isTrue(threshold > 0, "The threshold must be positive");
+		Validate.notNull(action, "The action cannot be null");
+		this.watchedThread = watchedThread;
+		this.thresholdNanos = unit.toNanos(threshold);
+		this.action = action;
+	}
+
+	/**
+	 * Starts the background thread of the watchdog.
+	 */
+	public synchronized void start()
+	{
+		if (watchdogThread != null)
+		{
+			return;
+		}
+		Thread thread = new Thread(this::watch, "MockBukkit Watchdog");
+		thread.setDaemon(true);
+		watchdogThread = thread;
+		thread.start();
+	}
+
+	/**
+	 * Stops the background thread of the watchdog.
+	 */
+	public synchronized void stop()
+	{
+		Thread thread = watchdogThread;
+		watchdogThread = null;
+		if (thread != null)
+		{
+			thread.interrupt();
+		}
+	}
+
+	/**
+	 * Marks the start of a piece of work on the watched thread. Every call must be followed by a call to
+	 * {@link #exit()}. Calls from other threads are ignored.
+	 *
+	 * @param description A description of the work, such as the task or event being handled.
+	 * @param owner       The plugin that owns the work, if any.
+	 */
+	public void enter(@NotNull String description, @Nullable Plugin owner)
+	{
+		if (Thread.currentThread() == watchedThread)
+		{
+			current = new Work(current, description, owner, System.nanoTime());
+		}
+	}
+
+	/**
+	 * Marks the end of the piece of work that was last started with {@link #enter(String, Plugin)}.
+	 *
+	 * @throws WatchdogTimeoutException If the work took too long and the action is {@link Action#FAIL}.
+	 */
+	public void exit()
+	{
+		Work work = current;
+		if (Thread.currentThread() != watchedThread || work == null)
+		{
+			return;
+		}
+		current = work.parent;
+		if (!work.state.compareAndSet(Work.RUNNING, Work.FINISHED))
+		{
+			// The watchdog has decided to interrupt this work, wait until the interrupt has arrived and clear it.
+			while (work.state.get() == Work.INTERRUPTING)
+			{
+				Thread.yield();
+			}
+			Thread.interrupted();
+		}
+		String report = work.report;
+		if (report != null && action == Action.FAIL)
+		{
+			throw new WatchdogTimeoutException(report);
+		}
+	}
+
+	/**
+	 * Gets all reports the watchdog has written so far.
+	 *
+	 * @return The reports of all work that exceeded the threshold.
+	 */
+	@NotNull
+	public List<String> getReports()
+	{
+		synchronized (reports)
+		{
+			return new ArrayList<>(reports);
+		}
+	}
+
+	private void watch()
+	{
+		long interval = Math.max(TimeUnit.NANOSECONDS.toMillis(thresholdNanos) / 4, 1);
+		while (watchdogThread == Thread.currentThread())
+		{
+			try
+			{
+				Thread.sleep(interval);
+			}
+			catch (InterruptedException e)
+			{
+				return;
+			}
+
+			// Work that keeps calling short event handlers must still be caught, so the whole chain is checked.
+			long now = System.nanoTime();
+			for (Work work = current; work != null; work = work.parent)
+			{
+				if (work.report == null && now - work.start > thresholdNanos)
+				{
+					report(work);
+					break;
+				}
+			}
+		}
+	}
+
+	private void report(@NotNull Work work)
+	{
+		StringBuilder builder = new StringBuilder();
+		builder.append(String.format("The main thread has been running %s for %d ms (threshold is %d ms)",
+		                             work.description,
+		                             TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - work.start),
+		                             TimeUnit.NANOSECONDS.toMillis(thresholdNanos)));
+		if (work.owner != null)
+		{
+			builder.append(" for plugin ").append(work.owner.getName());
+		}
+		builder.append("\nThread state: ").append(watchedThread.getState());
+		for (StackTraceElement element : watchedThread.getStackTrace())
+		{
+			builder.append("\n\tat ").append(element);
+		}
+
+		String report = builder.toString();
+		work.report = report;
+		reports.add(report);
+		LOGGER.log(Level.SEVERE, report);
+		// Only interrupt work that has not exited yet, otherwise the interrupt would hit whatever runs next.
+		if (action == Action.FAIL && work.state.compareAndSet(Work.RUNNING, Work.INTERRUPTING))
+		{
+			watchedThread.interrupt();
+			work.state.set(Work.INTERRUPTED);
+		}
+	}
+
+	private static final class Work
+	{
+		private static final int RUNNING = 0;
+		private static final int INTERRUPTING = 1;
+		private static final int INTERRUPTED = 2;
+		private static final int FINISHED = 3;
+
+		private final AtomicInteger state = new AtomicInteger(RUNNING);
+		private final Work parent;
+		private final String description;
+		private final Plugin owner;
+		private final long start;
+		private volatile String report;
+
+		private Work(Work parent, String description, Plugin owner, long start)
+		{
+			this.parent = parent;
+			this.description = description;
+			this.owner = owner;
+			this.start = start;
+		}
+	}
+
+}
@@ -1,8 +1,8 @@
 package be.seeseemelk.mockbukkit.scheduler;
 
-import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.bukkit.plugin.Plugin;
 import org.bukkit.scheduler.BukkitTask;
@@ -12,11 +12,11 @@ public class ScheduledTask implements BukkitTask
 	private int id;
 	private Plugin plugin;
 	private boolean isSync;
-	private boolean isCancelled = false;
+	private volatile boolean isCancelled = false;
 	private long scheduledTick;
-	private boolean running;
+	private volatile boolean running;
 	private Runnable runnable;
-	private List<Runnable> cancelListeners = new LinkedList<>();
+	private List<Runnable> cancelListeners = new CopyOnWriteArrayList<>();
 
 	public ScheduledTask(int id, Plugin plugin, boolean isSync, long scheduledTick, Runnable runnable)
 	{
@@ -0,0 +1,239 @@
+package be.seeseemelk.mockbukkit.scheduler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Keeps track of how much time the tasks of a {@link BukkitSchedulerMock} take to run. The timings are aggregated per
+ * task, per owning plugin and per class of runnable. Ticks on which the synchronous tasks together took longer than
+ * the tick budget are remembered as well.
+ */
+public class SchedulerTimings
+{
+	private final Map<Integer, Timing> taskTimings = new HashMap<>();
+	private final Map<Plugin, Timing> pluginTimings = new HashMap<>();
+	private final Map<Class<?>, Timing> runnableTimings = new HashMap<>();
+	private final Map<Long, Long> overBudgetTicks = new LinkedHashMap<>();
+	private long tickBudget = TimeUnit.MILLISECONDS.toNanos(50);
+
+	/**
+	 * Records a single execution of a task.
+	 *
+	 * @param task          The task that was executed.
+	 * @param runnableClass The class of the runnable that was executed.
+	 * @param nanos         The time it took, in nanoseconds.
+	 */
+	synchronized void record(@NotNull ScheduledTask task, @NotNull Class<?> runnableClass, long nanos)
+	{
+		taskTimings.computeIfAbsent(task.getTaskId(), id -> new Timing()).add(nanos);
+		pluginTimings.computeIfAbsent(task.getOwner(), plugin -> new Timing()).add(nanos);
+		runnableTimings.computeIfAbsent(runnableClass, type -> new Timing()).add(nanos);
+	}
+
+	/**
+	 * Records the total time spent on synchronous tasks during a tick.
+	 *
+	 * @param tick  The tick that was performed.
+	 * @param nanos The time spent on synchronous tasks, in nanoseconds.
+	 */
+	synchronized void recordTick(long tick, long nanos)
+	{
+		if (nanos > tickBudget)
+		{
+			overBudgetTicks.put(tick, nanos);
+		}
+	}
+
+	/**
+	 * Sets the amount of time the synchronous tasks of a single tick may take before the tick is reported by
+	 * {@link #getOverBudgetTicks()}. The default is 50 milliseconds, the length of a tick on a real server.
+	 *
+	 * @param budget The budget.
+	 * @param unit   The unit of the budget.
+	 */
+	public synchronized void setTickBudget(long budget, @NotNull TimeUnit unit)
+	{
+		tickBudget = unit.toNanos(budget);
+	}
+
+	/**
+	 * Gets the tick budget.
+	 *
+	 * @return The tick budget in nanoseconds.
+	 */
+	public synchronized long getTickBudgetNanos()
+	{
+		return tickBudget;
+	}
+
+	/**
+	 * Gets the timings of a single task.
+	 *
+	 * @param taskId The id of the task.
+	 * @return The timings of the task. If the task has never run, all values are zero.
+	 */
+	public synchronized @NotNull Timing getTaskTimings(int taskId)
+	{
+		return copyOf(taskTimings.get(taskId));
+	}
+
+	/**
+	 * Gets the combined timings of all tasks owned by a plugin.
+	 *
+	 * @param plugin The plugin, or {@code null} for tasks without an owner.
+	 * @return The timings of the plugin. If none of its tasks have run, all values are zero.
+	 */
+	public synchronized @NotNull Timing getPluginTimings(@Nullable Plugin plugin)
+	{
+		return copyOf(pluginTimings.get(plugin));
+	}
+
+	/**
+	 * Gets the combined timings of all tasks of which the runnable is of a certain class. For asynchronous tasks this
+	 * is the class of the runnable that was passed to the scheduler.
+	 *
+	 * @param runnableClass The class of the runnable.
+	 * @return The timings of the runnable class. If no such task has run, all values are zero.
+	 */
+	public synchronized @NotNull Timing getRunnableTimings(@NotNull Class<?> runnableClass)
+	{
+		return copyOf(runnableTimings.get(runnableClass));
+	}
+
+	/**
+	 * Gets the ticks on which the synchronous tasks took longer than the tick budget.
+	 *
+	 * @return A map of the ticks that went over budget, in order, to the time their synchronous tasks took in
+	 *         nanoseconds.
+	 */
+	public synchronized @NotNull Map<Long, Long> getOverBudgetTicks()
+	{
+		return Collections.unmodifiableMap(new LinkedHashMap<>(overBudgetTicks));
+	}
+
+	/**
+	 * Removes all recorded timings.
+	 */
+	public synchronized void reset()
+	{
+		taskTimings.clear();
+		pluginTimings.clear();
+		runnableTimings.clear();
+		overBudgetTicks.clear();
+	}
+
+	/**
+	 * Creates a human readable report of the timings per plugin and per runnable class, sorted by total time spent.
+	 *
+	 * @return The report.
+	 */
+	public synchronized @NotNull String getReport()
+	{
+		StringBuilder report = new StringBuilder("Plugins:");
+		List<Map.Entry<Plugin, Timing>> plugins = new ArrayList<>(pluginTimings.entrySet());
+		plugins.sort(Map.Entry.comparingByValue(Comparator.comparingLong(Timing::getTotalNanos).reversed()));
+		for (Map.Entry<Plugin, Timing> entry : plugins)
+		{
+			String name = entry.getKey() == null ? "no plugin" : entry.getKey().getName();
+			report.append(System.lineSeparator()).append("  ").append(name).append(": ").append(entry.getValue());
+		}
+
+		report.append(System.lineSeparator()).append("Runnables:");
+		List<Map.Entry<Class<?>, Timing>> runnables = new ArrayList<>(runnableTimings.entrySet());
+		runnables.sort(Map.Entry.comparingByValue(Comparator.comparingLong(Timing::getTotalNanos).reversed()));
+		for (Map.Entry<Class<?>, Timing> entry : runnables)
+		{
+			report.append(System.lineSeparator()).append("  ").append(entry.getKey().getName()).append(": ")
+			.append(entry.getValue());
+		}
+
+		report.append(System.lineSeparator()).append("Ticks over budget: ").append(overBudgetTicks.size());
+		return report.toString();
+	}
+
+	private static Timing copyOf(@Nullable Timing timing)
+	{
+		Timing copy = new Timing();
+		if (timing != null)
+		{
+			copy.count = timing.count;
+			copy.totalNanos = timing.totalNanos;
+			copy.maxNanos = timing.maxNanos;
+		}
+		return copy;
+	}
+
+	/**
+	 * The timings of a task or a group of tasks.
+	 */
+	public static class Timing
+	{
+		private long count;
+		private long totalNanos;
+		private long maxNanos;
+
+		private void add(long nanos)
+		{
+			count++;
+			totalNanos += nanos;
+			maxNanos = Math.max(maxNanos, nanos);
+		}
+
+		/**
+		 * Gets the number of times the tasks were executed.
+		 *
+		 * @return The number of invocations.
+		 */
+		public long getCount()
+		{
+			return count;
+		}
+
+		/**
+		 * Gets the total time spent executing the tasks.
+		 *
+		 * @return The total time in nanoseconds.
+		 */
+		public long getTotalNanos()
+		{
+			return totalNanos;
+		}
+
+		/**
+		 * Gets the longest time a single execution took.
+		 *
+		 * @return The maximum time in nanoseconds.
+		 */
+		public long getMaxNanos()
+		{
+			return maxNanos;
+		}
+
+		/**
+		 * Gets the average time a single execution took.
+		 *
+		 * @return The average time in nanoseconds, or {@code 0} if the tasks never ran.
+		 */
+		public long getAverageNanos()
+		{
+			return count == 0 ? 0 : totalNanos / count;
+		}
+
+		@Override
+		public String toString()
+		{
+			return String.format("%d calls, %.3f ms total, %.3f ms avg, %.3f ms max", count, totalNanos / 1e6,
+			                     getAverageNanos() / 1e6, maxNanos / 1e6);
+		}
+	}
+}
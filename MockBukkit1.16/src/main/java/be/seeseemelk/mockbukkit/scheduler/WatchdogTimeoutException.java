@@ -0,0 +1,17 @@
+package be.seeseemelk.mockbukkit.scheduler;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Thrown when a piece of work on the main thread took longer than the threshold of the {@link MainThreadWatchdog}.
+ * The message contains the report of the watchdog, including a sample of the stack of the main thread.
+ */
+public class WatchdogTimeoutException extends RuntimeException
+{
+	private static final long serialVersionUID = -4102948273301842195L;
+
+	public WatchdogTimeoutException(@NotNull String report)
+	{
+		super(report);
+	}
+}
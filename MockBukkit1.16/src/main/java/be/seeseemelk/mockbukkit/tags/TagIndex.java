@@ -0,0 +1,308 @@
+package be.seeseemelk.mockbukkit.tags;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+
+/**
+ * A precompiled index of all default {@link TagWrapperMock tags}. The index is generated from the tag JSON files by
+ * the {@code compileTagIndex} Gradle task and stored as the resource {@value #RESOURCE}. For every tag it contains a
+ * bitset of {@link Material} ordinals with all nested tags already resolved, together with the keys of its sub-tags.
+ * Loading it is a single read instead of walking and parsing every JSON file.
+ * <p>
+ * The index starts with a fingerprint of the {@link Material} enum it was compiled against. If the enum at runtime
+ * differs, the index is ignored and the tags are parsed from JSON instead.
+ */
+public final class TagIndex
+{
+	/**
+	 * The name of the resource that contains the index.
+	 */
+	public static final String RESOURCE = "/tags/index.bin";
+
+	private static final int MAGIC = 0x4D425449;
+	private static final int FORMAT_VERSION = 1;
+
+	private TagIndex()
+	{
+		// Utility class
+	}
+
+	/**
+	 * Compiles the tag JSON files into an index.
+	 *
+	 * @param args The directory containing a directory of JSON files per {@link TagRegistry} and the file to write the
+	 *             index to.
+	 * @throws IOException When a file could not be read or written.
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		if (args.length != 2)
+		{
+			throw new IllegalArgumentException("Usage: TagIndex <tags directory> <output file>");
+		}
+
+		File tagsDirectory = new File(args[0]);
+		File output = new File(args[1]);
+		parseJson(tagsDirectory);
+
+		File parent = output.getParentFile();
+		if (parent != null && !parent.isDirectory() && !parent.mkdirs())
+		{
+			throw new IOException("Could not create " + parent);
+		}
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(output))))
+		{
+			write(out);
+		}
+	}
+
+	private static void parseJson(@NotNull File tagsDirectory) throws IOException
+	{
+		for (TagRegistry registry : TagRegistry.values())
+		{
+			File directory = new File(tagsDirectory, registry.getRegistry());
+			File[] files = directory.listFiles((dir, name) -> name.endsWith(".json"));
+			if (files == null)
+			{
+				throw new IOException("Could not list " + directory);
+			}
+			Arrays.sort(files);
+
+			Map<TagWrapperMock, File> tags = new LinkedHashMap<>();
+			for (File file : files)
+			{
+				String name = file.getName().substring(0, file.getName().length() - ".json".length());
+				NamespacedKey key = NamespacedKey.minecraft(name);
+				TagWrapperMock tag = new TagWrapperMock(registry, key);
+				registry.getTags().put(key, tag);
+				tags.put(tag, file);
+			}
+
+			for (Map.Entry<TagWrapperMock, File> entry : tags.entrySet())
+			{
+				TagWrapperMock tag = entry.getKey();
+				String json = new String(Files.readAllBytes(entry.getValue().toPath()), StandardCharsets.UTF_8);
+				try
+				{
+					new TagParser(registry, tag.getKey()).parse(json, tag::setValues);
+				}
+				catch (TagMisconfigurationException e)
+				{
+					// Mirror what happens at runtime, where the tag would stay empty.
+					System.err.println("Failed to load Tag - " + tag.getKey() + ": " + e.getMessage());
+				}
+			}
+		}
+	}
+
+	private static void write(@NotNull DataOutputStream out) throws IOException
+	{
+		out.writeInt(MAGIC);
+		out.writeInt(FORMAT_VERSION);
+		out.writeInt(Material.values().length);
+		out.writeInt(materialFingerprint());
+
+		out.writeInt(TagRegistry.values().length);
+		for (TagRegistry registry : TagRegistry.values())
+		{
+			out.writeUTF(registry.name());
+			out.writeInt(registry.getTags().size());
+			for (TagWrapperMock tag : registry.getTags().values())
+			{
+				out.writeUTF(tag.getKey().getKey());
+
+				Set<TagWrapperMock> subTags = tag.getSubTags();
+				out.writeInt(subTags.size());
+				for (TagWrapperMock subTag : subTags)
+				{
+					out.writeUTF(subTag.getKey().getKey());
+				}
+
+				BitSet bits = new BitSet();
+				for (Material material : tag.getValues())
+				{
+					bits.set(material.ordinal());
+				}
+				long[] words = bits.toLongArray();
+				out.writeInt(words.length);
+				for (long word : words)
+				{
+					out.writeLong(word);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Loads the default tags from the index into the {@link TagRegistry registries}.
+	 *
+	 * @return {@code true} if the tags were loaded, {@code false} if there is no usable index and the tags have to be
+	 *         parsed from JSON.
+	 */
+	static boolean load()
+	{
+		InputStream resource = MockBukkit.class.getResourceAsStream(RESOURCE);
+		return resource != null && load(resource);
+	}
+
+	/**
+	 * Loads the default tags from an index into the {@link TagRegistry registries}.
+	 *
+	 * @param stream The stream to read the index from, it is closed afterwards.
+	 * @return {@code true} if the tags were loaded, {@code false} if the index is not usable.
+	 */
+	static boolean load(@NotNull InputStream stream)
+	{
+		Map<TagRegistry, List<Entry>> index;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(stream)))
+		{
+			index = read(in);
+		}
+		catch (IOException | RuntimeException e)
+		{
+			// A damaged index is treated like a missing one.
+			return false;
+		}
+
+		if (index == null)
+		{
+			return false;
+		}
+
+		Material[] materials = Material.values();
+		for (Map.Entry<TagRegistry, List<Entry>> registryEntry : index.entrySet())
+		{
+			TagRegistry registry = registryEntry.getKey();
+			Map<String, TagWrapperMock> tags = new LinkedHashMap<>();
+			for (Entry entry : registryEntry.getValue())
+			{
+				tags.put(entry.key, new TagWrapperMock(registry, NamespacedKey.minecraft(entry.key)));
+			}
+
+			for (Entry entry : registryEntry.getValue())
+			{
+				Set<Material> values = EnumSet.noneOf(Material.class);
+				for (int i = entry.bits.nextSetBit(0); i >= 0; i = entry.bits.nextSetBit(i + 1))
+				{
+					values.add(materials[i]);
+				}
+
+				Set<TagWrapperMock> subTags = new HashSet<>();
+				for (String subTag : entry.subTags)
+				{
+					subTags.add(tags.get(subTag));
+				}
+				tags.get(entry.key).setValues(values, subTags);
+			}
+
+			for (TagWrapperMock tag : tags.values())
+			{
+				registry.getTags().put(tag.getKey(), tag);
+			}
+		}
+		return true;
+	}
+
+	@Nullable
+	private static Map<TagRegistry, List<Entry>> read(@NotNull DataInputStream in) throws IOException
+	{
+		if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION)
+		{
+			return null;
+		}
+		Material[] materials = Material.values();
+		if (in.readInt() != materials.length || in.readInt() != materialFingerprint())
+		{
+			// Compiled against a different version of Bukkit.
+			return null;
+		}
+
+		Map<TagRegistry, List<Entry>> index = new LinkedHashMap<>();
+		int registries = in.readInt();
+		for (int i = 0; i < registries; i++)
+		{
+			TagRegistry registry = TagRegistry.valueOf(in.readUTF());
+			int tagCount = in.readInt();
+			List<Entry> entries = new ArrayList<>(tagCount);
+			Set<String> keys = new HashSet<>();
+			for (int j = 0; j < tagCount; j++)
+			{
+				Entry entry = new Entry(in);
+				entries.add(entry);
+				keys.add(entry.key);
+			}
+			for (Entry entry : entries)
+			{
+				if (!keys.containsAll(entry.subTags) || entry.bits.length() > materials.length)
+				{
+					return null;
+				}
+			}
+			index.put(registry, entries);
+		}
+		return index;
+	}
+
+	private static int materialFingerprint()
+	{
+		int hash = 1;
+		for (Material material : Material.values())
+		{
+			hash = 31 * hash + material.name().hashCode();
+		}
+		return hash;
+	}
+
+	/**
+	 * A single tag as it is stored in the index.
+	 */
+	private static class Entry
+	{
+		private final String key;
+		private final List<String> subTags;
+		private final BitSet bits;
+
+		private Entry(@NotNull DataInputStream in) throws IOException
+		{
+			key = in.readUTF();
+			int subTagCount = in.readInt();
+			subTags = new ArrayList<>(subTagCount);
+			for (int i = 0; i < subTagCount; i++)
+			{
+				subTags.add(in.readUTF());
+			}
+			long[] words = new long[in.readInt()];
+			for (int i = 0; i < words.length; i++)
+			{
+				words[i] = in.readLong();
+			}
+			bits = BitSet.valueOf(words);
+		}
+	}
+
+}
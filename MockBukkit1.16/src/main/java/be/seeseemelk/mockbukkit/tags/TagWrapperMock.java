@@ -1,8 +1,12 @@
 package be.seeseemelk.mockbukkit.tags;
 
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
@@ -20,10 +24,19 @@ import org.jetbrains.annotations.NotNull;
 public class TagWrapperMock implements Tag<Material>
 {
 
+	/**
+	 * Guards the resolved contents of all tags, so that a tag which changes can invalidate every tag it is nested in.
+	 */
+	private static final Object RESOLVE_LOCK = new Object();
+	private static final Contents EMPTY = new Contents(Collections.emptySet(), Collections.emptySet());
+
 	private final TagRegistry registry;
 	private final NamespacedKey key;
-	private final Set<Material> materials = new HashSet<>();
-	private final Set<TagWrapperMock> additionalTags = new HashSet<>();
+	private final Set<TagWrapperMock> dependents = new HashSet<>();
+	private volatile Contents contents;
+	private volatile Resolved resolved;
+	private volatile boolean loaded = true;
+	private Logger logger;
 
 	public TagWrapperMock(@NotNull TagRegistry registry, @NotNull NamespacedKey key)
 	{
@@ -46,64 +59,225 @@ public class TagWrapperMock implements Tag<Material>
 
 	public void reload() throws TagMisconfigurationException
 	{
-		this.materials.clear();
-		this.additionalTags.clear();
-
-		new TagParser(this).parse((mats, tags) ->
+		synchronized (this)
 		{
-			this.materials.addAll(mats);
-			this.additionalTags.addAll(tags);
-		});
+			try
+			{
+				new TagParser(this).parse(this::setValues);
+			}
+			catch (TagMisconfigurationException e)
+			{
+				setValues(Collections.emptySet(), Collections.emptySet());
+				throw e;
+			}
+		}
 	}
 
-	@Override
-	public boolean isTagged(@NotNull Material item)
+	/**
+	 * Turns this {@link Tag} into a placeholder which only parses its JSON file the first time it is used.
+	 *
+	 * @param logger The {@link Logger} to report a misconfigured {@link Tag} to
+	 */
+	void deferLoading(@NotNull Logger logger)
 	{
-		if (materials.contains(item))
-		{
-			return true;
-		}
-		else
+		this.logger = logger;
+		this.loaded = false;
+	}
+
+	/**
+	 * Parses the JSON file of this {@link Tag} if it was deferred and has not been parsed yet.
+	 */
+	private void ensureLoaded()
+	{
+		if (!loaded)
 		{
-			// Check if any of our additional Tags contain this Materials
-			for (Tag<Material> tag : additionalTags)
+			synchronized (this)
 			{
-				if (tag.isTagged(item))
+				if (!loaded)
 				{
-					return true;
+					try
+					{
+						reload();
+					}
+					catch (TagMisconfigurationException e)
+					{
+						logger.log(Level.SEVERE, e, () -> "Failed to load Tag - " + key);
+					}
+					loaded = true;
 				}
 			}
+		}
+	}
+
+	/**
+	 * Replaces the contents of this {@link Tag} and invalidates the {@link Tag Tags} it is nested in. This also happens
+	 * the first time a {@link Tag} gets its contents, since another {@link Tag} may have resolved it as empty before.
+	 * The contents are published before the {@link Tag} is marked as loaded.
+	 *
+	 * @param mats The {@link Material Materials} in this {@link Tag}
+	 * @param tags The {@link Tag Tags} nested in this {@link Tag}
+	 */
+	synchronized void setValues(@NotNull Set<Material> mats, @NotNull Set<TagWrapperMock> tags)
+	{
+		contents = new Contents(mats, tags);
+		loaded = true;
+		invalidate();
+	}
 
-			// Now we can be sure it isn't tagged in any way
-			return false;
+	private void invalidate()
+	{
+		synchronized (RESOLVE_LOCK)
+		{
+			resolved = null;
+			for (TagWrapperMock dependent : dependents)
+			{
+				dependent.resolved = null;
+			}
 		}
 	}
 
+	@NotNull
+	private Contents getContents()
+	{
+		ensureLoaded();
+		return getLoadedContents();
+	}
+
+	/**
+	 * Gets the contents of this {@link Tag} without loading it. This is used while holding the resolve lock, which
+	 * must never wait for a {@link Tag} that is being loaded, because loading a {@link Tag} takes the resolve lock to
+	 * invalidate its dependents.
+	 *
+	 * @return The contents of this {@link Tag}, or empty contents if it has not been loaded yet
+	 */
+	@NotNull
+	private Contents getLoadedContents()
+	{
+		Contents current = contents;
+		return current == null ? EMPTY : current;
+	}
+
+	@Override
+	public boolean isTagged(@NotNull Material item)
+	{
+		long[] bits = resolve().bits;
+		int ordinal = item.ordinal();
+		int word = ordinal >>> 6;
+		return word < bits.length && (bits[word] & (1L << ordinal)) != 0;
+	}
+
 	@NotNull
 	@Override
 	public Set<Material> getValues()
 	{
-		if (additionalTags.isEmpty())
+		return resolve().values;
+	}
+
+	@NotNull
+	public Set<TagWrapperMock> getSubTags()
+	{
+		return getContents().tags;
+	}
+
+	/**
+	 * Gets the contents of this {@link Tag} with all nested {@link Tag Tags} resolved. They are only calculated again
+	 * after this {@link Tag} or one of the {@link Tag Tags} nested in it was changed.
+	 *
+	 * @return The resolved contents
+	 */
+	@NotNull
+	private Resolved resolve()
+	{
+		Resolved current = resolved;
+		if (current == null)
 		{
-			return Collections.unmodifiableSet(materials);
+			// Deferred tags are loaded before taking the resolve lock. A tag that is still loaded concurrently is
+			// resolved as empty here and invalidates this tag once its contents are published.
+			load(new HashSet<>());
+			synchronized (RESOLVE_LOCK)
+			{
+				current = resolved;
+				if (current == null)
+				{
+					Set<Material> values = EnumSet.noneOf(Material.class);
+					Set<TagWrapperMock> visited = new HashSet<>();
+					collect(values, visited);
+					for (TagWrapperMock tag : visited)
+					{
+						if (tag != this)
+						{
+							tag.dependents.add(this);
+						}
+					}
+					current = new Resolved(values);
+					resolved = current;
+				}
+			}
 		}
-		else
+		return current;
+	}
+
+	private void load(@NotNull Set<TagWrapperMock> visited)
+	{
+		if (visited.add(this))
 		{
-			Set<Material> mats = new HashSet<>(materials);
+			for (TagWrapperMock tag : getContents().tags)
+			{
+				tag.load(visited);
+			}
+		}
+	}
 
-			for (Tag<Material> tag : additionalTags)
+	private void collect(@NotNull Set<Material> values, @NotNull Set<TagWrapperMock> visited)
+	{
+		if (visited.add(this))
+		{
+			Contents current = getLoadedContents();
+			values.addAll(current.materials);
+			for (TagWrapperMock tag : current.tags)
 			{
-				mats.addAll(tag.getValues());
+				tag.collect(values, visited);
 			}
+		}
+	}
+
+	/**
+	 * An immutable snapshot of the direct contents of a {@link Tag}.
+	 */
+	private static final class Contents
+	{
+		private final Set<Material> materials;
+		private final Set<TagWrapperMock> tags;
 
-			return mats;
+		private Contents(@NotNull Set<Material> materials, @NotNull Set<TagWrapperMock> tags)
+		{
+			Set<Material> copy = EnumSet.noneOf(Material.class);
+			copy.addAll(materials);
+			this.materials = Collections.unmodifiableSet(copy);
+			this.tags = Collections.unmodifiableSet(new HashSet<>(tags));
 		}
 	}
 
-	@NotNull
-	public Set<TagWrapperMock> getSubTags()
+	/**
+	 * The contents of a {@link Tag} with all nested {@link Tag Tags} resolved, as a bitset of {@link Material}
+	 * ordinals and as a {@link Set}.
+	 */
+	private static final class Resolved
 	{
-		return Collections.unmodifiableSet(additionalTags);
+		private final long[] bits;
+		private final Set<Material> values;
+
+		private Resolved(@NotNull Set<Material> values)
+		{
+			this.values = Collections.unmodifiableSet(values);
+
+			BitSet bitSet = new BitSet();
+			for (Material material : values)
+			{
+				bitSet.set(material.ordinal());
+			}
+			this.bits = bitSet.toLongArray();
+		}
 	}
 
 }
@@ -32,13 +32,30 @@ public final class TagsMock
 	}
 
 	/**
-	 * This loads all default {@link Tag Tags} into the given {@link Server}.
+	 * This loads all default {@link Tag Tags} into the given {@link Server}. The {@link TagIndex} is used when it is
+	 * available, otherwise the JSON files of every {@link Tag} are parsed.
 	 *
 	 * @param server       The {@link ServerMock} instance
 	 * @param skipIfExists Whether to skip an already loaded {@link TagRegistry}
 	 */
 	public static void loadDefaultTags(@NotNull ServerMock server, boolean skipIfExists)
 	{
+		boolean loaded = true;
+		for (TagRegistry registry : TagRegistry.values())
+		{
+			loaded &= skipIfExists && !registry.isEmpty();
+		}
+
+		// The precompiled index contains every default tag, so the JSON files only need to be parsed without it.
+		if (!loaded && TagIndex.load())
+		{
+			for (TagRegistry registry : TagRegistry.values())
+			{
+				server.addTagRegistry(registry);
+			}
+			return;
+		}
+
 		try
 		{
 			loadRegistry(server, TagRegistry.BLOCKS, skipIfExists);
@@ -95,23 +112,13 @@ public final class TagsMock
 				String name = filePattern.split(path.getFileName().toString())[0];
 				NamespacedKey key = NamespacedKey.minecraft(name);
 				TagWrapperMock tag = new TagWrapperMock(registry, key);
+				// The JSON file is only parsed once the tag is actually used.
+				tag.deferLoading(server.getLogger());
 				registry.getTags().put(key, tag);
 			});
 		}
 
 		server.addTagRegistry(registry);
-
-		for (TagWrapperMock tag : registry.getTags().values())
-		{
-			try
-			{
-				tag.reload();
-			}
-			catch (TagMisconfigurationException e)
-			{
-				server.getLogger().log(Level.SEVERE, e, () -> "Failed to load Tag - " + tag.getKey());
-			}
-		}
 	}
 
 	@NotNull
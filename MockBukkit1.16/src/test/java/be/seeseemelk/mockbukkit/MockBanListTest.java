@@ -8,6 +8,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Date;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.bukkit.BanEntry;
 import org.junit.jupiter.api.BeforeEach;
@@ -74,4 +75,36 @@ class MockBanListTest
 		assertEquals(source, banList.getBanEntry(target).getSource());
 	}
 
+	@Test
+	void isBanned_ExpiredOnClock_False()
+	{
+		AtomicLong clock = new AtomicLong(1000L);
+		MockBanList list = new MockBanList(clock::get);
+		list.addBan("target", "reason", new Date(2000L), "source");
+		assertTrue(list.isBanned("target"));
+		assertEquals(new Date(1000L), list.getBanEntry("target").getCreated());
+
+		clock.set(2000L);
+		assertFalse(list.isBanned("target"));
+		assertTrue(list.getBanEntries().isEmpty());
+	}
+
+	@Test
+	void isBanned_NoExpiration_NeverExpires()
+	{
+		AtomicLong clock = new AtomicLong();
+		MockBanList list = new MockBanList(clock::get);
+		list.addBan("target", "reason", null, "source");
+		clock.set(Long.MAX_VALUE);
+		assertTrue(list.isBanned("target"));
+	}
+
+	@Test
+	void isBanned_DefaultPlayerList_NeverExpires()
+	{
+		MockPlayerList playerList = new MockPlayerList();
+		playerList.getIPBans().addBan("target", "reason", new Date(1L), "source");
+		assertTrue(playerList.getIPBans().isBanned("target"));
+	}
+
 }
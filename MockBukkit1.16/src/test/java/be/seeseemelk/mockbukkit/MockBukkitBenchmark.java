@@ -0,0 +1,54 @@
+package be.seeseemelk.mockbukkit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Measures how many {@link MockBukkit#mock()} and {@link MockBukkit#unmock()} cycles can be run per second, with and
+ * without the {@link ServerTemplate}. These are excluded from the regular test run and can be executed using
+ * {@code gradle benchmark}.
+ */
+@Tag("benchmark")
+class MockBukkitBenchmark
+{
+	private static final int CYCLES = 2_000;
+	private static final int WARMUP_CYCLES = 500;
+
+	@AfterEach
+	public void tearDown()
+	{
+		ServerTemplate.setEnabled(false);
+	}
+
+	private static double measureCyclesPerSecond(boolean template)
+	{
+		ServerTemplate.setEnabled(template);
+		for (int i = 0; i < WARMUP_CYCLES; i++)
+		{
+			MockBukkit.mock();
+			MockBukkit.unmock();
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < CYCLES; i++)
+		{
+			MockBukkit.mock();
+			MockBukkit.unmock();
+		}
+		return CYCLES / ((System.nanoTime() - start) / 1e9);
+	}
+
+	@Test
+	void mockUnmock_WithAndWithoutTemplate()
+	{
+		double regularRate = measureCyclesPerSecond(false);
+		double templateRate = measureCyclesPerSecond(true);
+		System.out.printf("Regular servers:  %,10.0f cycles/s%n", regularRate);
+		System.out.printf("Template servers: %,10.0f cycles/s (%.1fx)%n", templateRate, templateRate / regularRate);
+
+		assertFalse(MockBukkit.isMocked());
+	}
+
+}
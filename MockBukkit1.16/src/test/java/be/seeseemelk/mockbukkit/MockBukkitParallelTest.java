@@ -0,0 +1,293 @@
+package be.seeseemelk.mockbukkit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MockBukkitParallelTest
+{
+	private static final int THREADS = 4;
+
+	@BeforeEach
+	public void setUp()
+	{
+		MockBukkit.setParallelMode(true);
+	}
+
+	@AfterEach
+	public void tearDown()
+	{
+		MockBukkit.unmock();
+		MockBukkit.setParallelMode(false);
+	}
+
+	private interface ThreadBody
+	{
+		void run(int index, CyclicBarrier barrier) throws Exception;
+	}
+
+	/**
+	 * Runs a body on several threads at once and rethrows the first failure on the calling thread.
+	 */
+	private static void runInParallel(ThreadBody body) throws Throwable
+	{
+		CyclicBarrier barrier = new CyclicBarrier(THREADS);
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < THREADS; i++)
+		{
+			int index = i;
+			Thread thread = new Thread(() ->
+			{
+				try
+				{
+					MockBukkit.mock();
+					barrier.await();
+					body.run(index, barrier);
+				}
+				catch (Throwable e)
+				{
+					failure.compareAndSet(null, e);
+				}
+				finally
+				{
+					MockBukkit.unmock();
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads)
+		{
+			thread.join();
+		}
+		if (failure.get() != null)
+		{
+			throw failure.get();
+		}
+	}
+
+	@Test
+	void mock_SeveralThreads_EachThreadOwnServer() throws Throwable
+	{
+		runInParallel((index, barrier) ->
+		{
+			ServerMock server = MockBukkit.getMock();
+			for (int i = 0; i <= index; i++)
+			{
+				server.addPlayer();
+			}
+			barrier.await();
+			assertEquals(index + 1, Bukkit.getOnlinePlayers().size());
+			assertSame(server.getPluginManager(), Bukkit.getPluginManager());
+			server.assertMainThread();
+		});
+	}
+
+	@Test
+	void callEvent_SeveralThreads_OnlyOwnListenersCalled() throws Throwable
+	{
+		runInParallel((index, barrier) ->
+		{
+			Plugin plugin = MockBukkit.createMockPlugin();
+			AtomicInteger calls = new AtomicInteger();
+			Bukkit.getPluginManager().registerEvents(new Listener()
+			{
+				@EventHandler
+				public void onBlockBreak(BlockBreakEvent event)
+				{
+					calls.incrementAndGet();
+				}
+			}, plugin);
+			barrier.await();
+
+			Bukkit.getPluginManager().callEvent(new BlockBreakEvent(null, null));
+			assertEquals(1, calls.get());
+		});
+	}
+
+	@Test
+	void getServer_ThreadNotMocking_Throws() throws Throwable
+	{
+		CountDownLatch mocked = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(1);
+		Thread thread = new Thread(() ->
+		{
+			MockBukkit.mock();
+			mocked.countDown();
+			try
+			{
+				done.await();
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+			finally
+			{
+				MockBukkit.unmock();
+			}
+		});
+		thread.start();
+		try
+		{
+			mocked.await();
+			// The server of the other thread keeps the delegating server installed.
+			assertNull(MockBukkit.getMock());
+			assertThrows(IllegalStateException.class, Bukkit::getName);
+		}
+		finally
+		{
+			done.countDown();
+			thread.join();
+		}
+	}
+
+	@Test
+	void mock_ThreadStartedWhileMocking_CanMockItself() throws Throwable
+	{
+		ServerMock server = MockBukkit.mock();
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		Thread child = new Thread(() ->
+		{
+			try
+			{
+				assertNull(MockBukkit.getMock());
+				assertNotSame(server, MockBukkit.mock());
+			}
+			catch (Throwable e)
+			{
+				failure.set(e);
+			}
+			finally
+			{
+				MockBukkit.unmock();
+			}
+		});
+		child.start();
+		child.join();
+		if (failure.get() != null)
+		{
+			throw failure.get();
+		}
+		assertSame(server, MockBukkit.getMock());
+	}
+
+	@Test
+	void runTaskAsynchronously_ParallelMode_TaskUsesServerOfScheduler()
+	{
+		ServerMock server = MockBukkit.mock();
+		Plugin plugin = MockBukkit.createMockPlugin();
+		AtomicReference<ServerMock> asyncServer = new AtomicReference<>();
+		server.getScheduler().runTaskAsynchronously(plugin, () -> asyncServer.set(MockBukkit.getMock()));
+		server.getScheduler().waitAsyncTasksFinished();
+		assertSame(server, asyncServer.get());
+	}
+
+	@Test
+	void unmock_OtherThreadStillMocking_ListenersOfOtherServerKept() throws Throwable
+	{
+		ServerMock server = MockBukkit.mock();
+		Plugin plugin = MockBukkit.createMockPlugin();
+		AtomicInteger calls = new AtomicInteger();
+		server.getPluginManager().registerEvents(new Listener()
+		{
+			@EventHandler
+			public void onBlockBreak(BlockBreakEvent event)
+			{
+				calls.incrementAndGet();
+			}
+		}, plugin);
+
+		Thread other = new Thread(() ->
+		{
+			MockBukkit.mock();
+			MockBukkit.createMockPlugin();
+			MockBukkit.unmock();
+		});
+		other.start();
+		other.join();
+
+		server.getPluginManager().callEvent(new BlockBreakEvent(null, null));
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	void setParallelMode_Mocking_Throws()
+	{
+		MockBukkit.mock();
+		assertThrows(IllegalStateException.class, () -> MockBukkit.setParallelMode(false));
+	}
+
+	@Test
+	void unmock_LastParallelServer_DelegatingServerRemoved() throws Throwable
+	{
+		MockBukkit.mock();
+		Thread other = new Thread(() ->
+		{
+			MockBukkit.mock();
+			MockBukkit.unmock();
+		});
+		other.start();
+		other.join();
+		assertNotNull(Bukkit.getServer());
+
+		MockBukkit.unmock();
+		assertNull(Bukkit.getServer());
+	}
+
+	@Test
+	void setParallelMode_OtherThreadMocking_Throws() throws Throwable
+	{
+		CountDownLatch mocked = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(1);
+		Thread thread = new Thread(() ->
+		{
+			MockBukkit.mock();
+			mocked.countDown();
+			try
+			{
+				done.await();
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+			finally
+			{
+				MockBukkit.unmock();
+			}
+		});
+		thread.start();
+		try
+		{
+			mocked.await();
+			assertThrows(IllegalStateException.class, () -> MockBukkit.setParallelMode(false));
+		}
+		finally
+		{
+			done.countDown();
+			thread.join();
+		}
+	}
+
+}
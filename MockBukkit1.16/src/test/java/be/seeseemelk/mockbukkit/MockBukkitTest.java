@@ -6,13 +6,18 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assumptions.assumeFalse;
 
 import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.event.server.PluginEnableEvent;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPluginUtils;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -52,6 +57,13 @@ class MockBukkitTest
 		assertEquals(server, Bukkit.getServer());
 	}
 
+	@Test
+	void mock_DefaultMode_BukkitServerIsServerMock()
+	{
+		ServerMock server = MockBukkit.mock();
+		assertSame(server, (ServerMock) Bukkit.getServer());
+	}
+
 	@Test
 	void mock_ServerSafeMocked()
 	{
@@ -164,6 +176,42 @@ class MockBukkitTest
 		assertThat(plugins[0].getName(), equalTo("TestPlugin"));
 	}
 
+	@Test
+	void unmock_ListenerOfDisabledPlugin_ReportedAndRemoved()
+	{
+		MockBukkit.mock();
+		MockPlugin plugin = MockBukkit.createMockPlugin();
+		Listener listener = new Listener()
+		{
+			@EventHandler
+			public void onBlockBreak(BlockBreakEvent event)
+			{
+				// Only needs to be registered.
+			}
+		};
+		Bukkit.getPluginManager().registerEvents(listener, plugin);
+		// Disable the plugin without going through the plugin manager, so its listener is not removed.
+		JavaPluginUtils.setEnabled(plugin, false);
+
+		MockBukkit.unmock();
+
+		LeakReport report = MockBukkit.getLastLeakReport();
+		assertEquals(1, report.getListeners().size());
+		assertEquals(listener, report.getListeners().get(0).getListener());
+		assertEquals(0, BlockBreakEvent.getHandlerList().getRegisteredListeners().length);
+	}
+
+	@Test
+	void unmock_PluginsDisabledNormally_NoLeaks()
+	{
+		MockBukkit.mock();
+		TestPlugin plugin = MockBukkit.load(TestPlugin.class);
+		Bukkit.getPluginManager().registerEvents(plugin, plugin);
+		Bukkit.getScheduler().runTaskTimer(plugin, () -> {}, 1L, 1L);
+		MockBukkit.unmock();
+		assertTrue(MockBukkit.getLastLeakReport().isEmpty());
+	}
+
 	private static class CustomServerMock extends ServerMock
 	{
 	}
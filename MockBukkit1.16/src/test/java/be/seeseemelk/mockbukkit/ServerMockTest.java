@@ -18,6 +18,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongConsumer;
 
 import org.bukkit.Material;
 import org.bukkit.command.Command;
@@ -535,6 +536,44 @@ class ServerMockTest
 	}
 
 
+	@Test
+	void tick_HooksAndTasks_RunInOrder()
+	{
+		StringBuilder order = new StringBuilder();
+		server.addPreTickHook(tick -> order.append("pre").append(tick).append(' '));
+		server.addPostTickHook(tick -> order.append("post").append(tick).append(' '));
+		server.getScheduler().runTask(null, () -> order.append("task "));
+
+		server.tick();
+		assertEquals("pre1 task post1 ", order.toString());
+		assertEquals(1, server.getCurrentTick());
+	}
+
+	@Test
+	void tick_MultipleTicks_StatisticsRecorded()
+	{
+		server.tick(20);
+		TickStatistics statistics = server.getTickStatistics();
+		assertEquals(20, server.getCurrentTick());
+		assertEquals(20, statistics.getTicks());
+		assertTrue(statistics.getTicksPerSecond() > 0);
+
+		statistics.reset();
+		assertEquals(0, statistics.getTicks());
+	}
+
+	@Test
+	void tick_RemovedHook_NotCalled()
+	{
+		AtomicReference<Long> lastTick = new AtomicReference<>();
+		LongConsumer hook = lastTick::set;
+		server.addPostTickHook(hook);
+		server.tick();
+		server.removePostTickHook(hook);
+		server.tick();
+		assertEquals(1L, lastTick.get());
+	}
+
 }
 
 class TestRecipe implements Recipe
@@ -0,0 +1,76 @@
+package be.seeseemelk.mockbukkit;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Tag;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.potion.PotionEffectType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ServerTemplateTest
+{
+	private boolean wasEnabled;
+
+	@BeforeEach
+	public void setUp()
+	{
+		wasEnabled = ServerTemplate.isEnabled();
+		ServerTemplate.setEnabled(true);
+	}
+
+	@AfterEach
+	public void tearDown()
+	{
+		MockBukkit.unmock();
+		ServerTemplate.setEnabled(wasEnabled);
+	}
+
+	@Test
+	void mock_TemplateEnabled_RegistriesAvailable()
+	{
+		ServerMock server = MockBukkit.mock();
+		assertTrue(ServerTemplate.isBuilt());
+		assertNotNull(PotionEffectType.SPEED);
+		assertNotNull(Enchantment.getByKey(NamespacedKey.minecraft("sharpness")));
+		Tag<Material> logs = server.getTag(Tag.REGISTRY_BLOCKS, NamespacedKey.minecraft("logs"), Material.class);
+		assertNotNull(logs);
+		assertTrue(logs.isTagged(Material.OAK_LOG));
+	}
+
+	@Test
+	void mock_TemplateEnabledTwice_FreshServerSharedTags()
+	{
+		ServerMock first = MockBukkit.mock();
+		first.addPlayer();
+		Tag<Material> firstLogs = first.getTag(Tag.REGISTRY_BLOCKS, NamespacedKey.minecraft("logs"), Material.class);
+		MockBukkit.unmock();
+
+		ServerMock second = MockBukkit.mock();
+		assertNotSame(first, second);
+		assertTrue(second.getOnlinePlayers().isEmpty());
+		assertSame(firstLogs, second.getTag(Tag.REGISTRY_BLOCKS, NamespacedKey.minecraft("logs"), Material.class));
+	}
+
+	@Test
+	void mock_TemplateEnabledTwice_CreatedTagsNotShared()
+	{
+		ServerMock first = MockBukkit.mock();
+		NamespacedKey key = new NamespacedKey("mockbukkit", "custom");
+		Tag<Material> custom = first.createMaterialTag(key, Tag.REGISTRY_BLOCKS);
+		assertSame(custom, first.getTag(Tag.REGISTRY_BLOCKS, key, Material.class));
+		MockBukkit.unmock();
+
+		ServerMock second = MockBukkit.mock();
+		assertNull(second.getTag(Tag.REGISTRY_BLOCKS, key, Material.class));
+		assertNotNull(second.getTag(Tag.REGISTRY_BLOCKS, NamespacedKey.minecraft("logs"), Material.class));
+	}
+
+}
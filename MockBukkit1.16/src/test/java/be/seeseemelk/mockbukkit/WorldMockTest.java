@@ -248,6 +248,48 @@ class WorldMockTest
 		assertEquals(0L, world.getTime(), "Day time should be zero");
 	}
 
+	@Test
+	void getFullTime_TicksPerformed_TimeAdvances()
+	{
+		WorldMock world = new WorldMock();
+		world.setFullTime(100L);
+		server.getScheduler().performTicks(20L);
+		assertEquals(120L, world.getFullTime());
+		assertEquals(120L, world.getTime());
+	}
+
+	@Test
+	void getFullTime_DaylightCycleDisabled_TimeFrozen()
+	{
+		WorldMock world = new WorldMock();
+		server.getScheduler().performTicks(10L);
+		world.setGameRule(GameRule.DO_DAYLIGHT_CYCLE, false);
+		server.getScheduler().performTicks(50L);
+		assertEquals(10L, world.getFullTime());
+
+		world.setGameRule(GameRule.DO_DAYLIGHT_CYCLE, true);
+		server.getScheduler().performTicks(5L);
+		assertEquals(15L, world.getFullTime());
+	}
+
+	@Test
+	void tick_WeatherDurationRunsOut_StormToggles()
+	{
+		WorldMock world = server.addSimpleWorld("world");
+		world.setStorm(true);
+		world.setWeatherDuration(10);
+		world.setThunderDuration(5);
+
+		server.tick(5);
+		assertTrue(world.hasStorm());
+		assertFalse(world.isThundering());
+		assertEquals(5, world.getWeatherDuration());
+
+		server.tick(5);
+		assertFalse(world.hasStorm());
+		assertEquals(0, world.getWeatherDuration());
+	}
+
 	@Test
 	void setTime_DayTimeValue()
 	{
@@ -315,6 +315,131 @@ class EntityMockTest
 		assertFalse(first.get().getValue());
 	}
 
+	@Test
+	void hasPermission_ParentGranted_ChildrenExpanded()
+	{
+		MockPlugin plugin = MockBukkit.createMockPlugin();
+		Permission parent = new Permission("mockbukkit.parent", PermissionDefault.FALSE);
+		parent.getChildren().put("mockbukkit.child", true);
+		parent.getChildren().put("mockbukkit.negated", false);
+		server.getPluginManager().addPermission(parent);
+		server.getPluginManager().addPermission(new Permission("mockbukkit.negated", PermissionDefault.TRUE));
+
+		entity.addAttachment(plugin, "mockbukkit.parent", true);
+		assertTrue(entity.hasPermission("mockbukkit.child"));
+		assertTrue(entity.isPermissionSet("mockbukkit.negated"));
+		assertFalse(entity.hasPermission("mockbukkit.negated"));
+	}
+
+	@Test
+	void hasPermission_ChildOfDefaultPermission_ChildrenExpanded()
+	{
+		Permission parent = new Permission("mockbukkit.parent", PermissionDefault.TRUE);
+		parent.getChildren().put("mockbukkit.child", true);
+		parent.getChildren().put("mockbukkit.negated", false);
+		server.getPluginManager().addPermission(parent);
+		server.getPluginManager().addPermission(new Permission("mockbukkit.negated", PermissionDefault.TRUE));
+
+		assertTrue(entity.hasPermission("mockbukkit.child"));
+		assertTrue(entity.isPermissionSet("mockbukkit.child"));
+		assertTrue(entity.hasPermission("mockbukkit.negated"));
+	}
+
+	@Test
+	void hasPermission_AttachmentDeniesDefaultPermission_Denied()
+	{
+		MockPlugin plugin = MockBukkit.createMockPlugin();
+		Permission parent = new Permission("mockbukkit.parent", PermissionDefault.TRUE);
+		parent.getChildren().put("mockbukkit.child", true);
+		server.getPluginManager().addPermission(parent);
+
+		entity.addAttachment(plugin, "mockbukkit.parent", false);
+		assertFalse(entity.hasPermission("mockbukkit.parent"));
+		assertFalse(entity.hasPermission("mockbukkit.child"));
+	}
+
+	@Test
+	void hasPermission_OpChanged_OpDefaultsApplied()
+	{
+		Permission parent = new Permission("mockbukkit.parent", PermissionDefault.OP);
+		parent.getChildren().put("mockbukkit.child", true);
+		server.getPluginManager().addPermission(parent);
+		assertFalse(entity.hasPermission("mockbukkit.child"));
+
+		entity.setOp(true);
+		assertTrue(entity.hasPermission("mockbukkit.child"));
+		assertTrue(server.getPluginManager().getDefaultPermSubscriptions(true).contains(entity));
+
+		entity.setOp(false);
+		assertFalse(entity.hasPermission("mockbukkit.child"));
+		assertFalse(server.getPluginManager().getDefaultPermSubscriptions(true).contains(entity));
+	}
+
+	@Test
+	void hasPermission_PermissionRegisteredLater_ChildrenExpanded()
+	{
+		MockPlugin plugin = MockBukkit.createMockPlugin();
+		entity.addAttachment(plugin, "mockbukkit.parent", true);
+		assertFalse(entity.hasPermission("mockbukkit.child"));
+
+		Permission parent = new Permission("mockbukkit.parent");
+		parent.getChildren().put("mockbukkit.child", true);
+		server.getPluginManager().addPermission(parent);
+		assertTrue(entity.hasPermission("mockbukkit.child"));
+	}
+
+	@Test
+	void hasPermission_ChildrenChangedAndRecalculated_ChildrenExpanded()
+	{
+		MockPlugin plugin = MockBukkit.createMockPlugin();
+		Permission parent = new Permission("mockbukkit.parent");
+		server.getPluginManager().addPermission(parent);
+		entity.addAttachment(plugin, "mockbukkit.parent", true);
+		assertFalse(entity.hasPermission("mockbukkit.child"));
+
+		parent.getChildren().put("mockbukkit.child", true);
+		parent.recalculatePermissibles();
+		assertTrue(entity.hasPermission("mockbukkit.child"));
+	}
+
+	@Test
+	void hasPermission_CheckOnly_SubscriptionsUnchanged()
+	{
+		MockPlugin plugin = MockBukkit.createMockPlugin();
+		PermissionAttachment attachment = entity.addAttachment(plugin, "mockbukkit.perm", true);
+		assertTrue(server.getPluginManager().getPermissionSubscriptions("mockbukkit.perm").contains(entity));
+
+		Permission parent = new Permission("mockbukkit.perm");
+		parent.getChildren().put("mockbukkit.child", true);
+		server.getPluginManager().addPermission(parent);
+		assertTrue(entity.hasPermission("mockbukkit.child"));
+		assertFalse(server.getPluginManager().getPermissionSubscriptions("mockbukkit.child").contains(entity));
+
+		attachment.setPermission("mockbukkit.other", true);
+		assertTrue(server.getPluginManager().getPermissionSubscriptions("mockbukkit.child").contains(entity));
+	}
+
+	@Test
+	void isPermissionSet_SetToFalse_True()
+	{
+		MockPlugin plugin = MockBukkit.createMockPlugin();
+		entity.addAttachment(plugin, "mockbukkit.perm", false);
+		assertTrue(entity.isPermissionSet("mockbukkit.perm"));
+		assertFalse(entity.hasPermission("mockbukkit.perm"));
+	}
+
+	@Test
+	void hasPermission_AttachmentUnset_PermissionRemoved()
+	{
+		MockPlugin plugin = MockBukkit.createMockPlugin();
+		PermissionAttachment attachment = entity.addAttachment(plugin, "mockbukkit.perm", true);
+		assertTrue(entity.hasPermission("MockBukkit.Perm"));
+
+		attachment.unsetPermission("mockbukkit.perm");
+		assertFalse(entity.isPermissionSet("mockbukkit.perm"));
+		assertFalse(entity.hasPermission("mockbukkit.perm"));
+	}
+
 	@Test
 	void removeAttachment_RemovesPermission()
 	{
@@ -367,4 +492,25 @@ class EntityMockTest
 		entity.setFireTicks(10);
 		assertEquals(10, entity.getFireTicks());
 	}
+
+	@Test
+	void tick_FireTicksAndAge_Advance()
+	{
+		server.registerEntity(entity);
+		entity.setFireTicks(10);
+		server.tick(4);
+		assertEquals(6, entity.getFireTicks());
+		assertEquals(5, entity.getTicksLived());
+	}
+
+	@Test
+	void remove_Entity_NoLongerValid()
+	{
+		server.registerEntity(entity);
+		assertTrue(entity.isValid());
+		entity.remove();
+		assertTrue(entity.isDead());
+		assertFalse(entity.isValid());
+		assertFalse(server.getEntities().contains(entity));
+	}
 }
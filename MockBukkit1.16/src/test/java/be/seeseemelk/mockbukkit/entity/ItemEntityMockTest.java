@@ -159,4 +159,29 @@ class ItemEntityMockTest
 		// Spigot really just throws a NPE here, so this is accurate behaviour
 		assertThrows(NullPointerException.class, () -> entity.setItemStack(null));
 	}
+
+	@Test
+	void tick_PickupDelay_CountsDown()
+	{
+		Item entity = world.dropItem(new Location(world, 0, 100, 0), new ItemStack(Material.STONE));
+		entity.setPickupDelay(5);
+		server.tick(3);
+		assertEquals(2, entity.getPickupDelay());
+
+		entity.setPickupDelay(Integer.MAX_VALUE);
+		server.tick(3);
+		assertEquals(32767, entity.getPickupDelay());
+	}
+
+	@Test
+	void tick_DespawnTimeReached_Removed()
+	{
+		Item entity = world.dropItem(new Location(world, 0, 100, 0), new ItemStack(Material.STONE));
+		server.tick(ItemEntityMock.DESPAWN_TICKS - 2);
+		assertTrue(entity.isValid());
+
+		server.tick();
+		assertFalse(entity.isValid());
+		assertFalse(server.getEntities().contains(entity));
+	}
 }
@@ -0,0 +1,86 @@
+package be.seeseemelk.mockbukkit.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.bukkit.permissions.Permission;
+import org.bukkit.permissions.PermissionAttachment;
+import org.bukkit.permissions.PermissionDefault;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.MockPlugin;
+import be.seeseemelk.mockbukkit.ServerMock;
+
+/**
+ * Measures {@link EntityMock#hasPermission(String)} when a listener checks permissions 10,000 times per tick. These
+ * are excluded from the regular test run and can be executed using {@code gradle benchmark}.
+ */
+@Tag("benchmark")
+class PermissionBenchmark
+{
+	private static final int PERMISSIONS = 50;
+	private static final int CHECKS_PER_TICK = 10_000;
+	private static final int TICKS = 1_000;
+	private static final int WARMUP_TICKS = 200;
+
+	private ServerMock server;
+	private PlayerMock player;
+	private String[] names;
+	private long granted;
+
+	@BeforeEach
+	public void setUp()
+	{
+		server = MockBukkit.mock();
+		MockPlugin plugin = MockBukkit.createMockPlugin();
+		player = server.addPlayer();
+
+		PermissionAttachment attachment = player.addAttachment(plugin);
+		names = new String[PERMISSIONS * 2];
+		for (int i = 0; i < PERMISSIONS; i++)
+		{
+			Permission permission = new Permission("mockbukkit.parent" + i, PermissionDefault.FALSE);
+			permission.getChildren().put("mockbukkit.child" + i, true);
+			server.getPluginManager().addPermission(permission);
+			attachment.setPermission(permission, true);
+			names[i * 2] = permission.getName();
+			names[i * 2 + 1] = "mockbukkit.child" + i;
+		}
+		server.getScheduler().runTaskTimer(plugin, this::checkPermissions, 1L, 1L);
+	}
+
+	@AfterEach
+	public void tearDown()
+	{
+		MockBukkit.unmock();
+	}
+
+	private void checkPermissions()
+	{
+		for (int i = 0; i < CHECKS_PER_TICK; i++)
+		{
+			if (player.hasPermission(names[i % names.length]))
+			{
+				granted++;
+			}
+		}
+	}
+
+	@Test
+	void hasPermission_TenThousandChecksPerTick()
+	{
+		server.getScheduler().performTicks(WARMUP_TICKS);
+		granted = 0;
+		long start = System.nanoTime();
+		server.getScheduler().performTicks(TICKS);
+		long nanosPerTick = (System.nanoTime() - start) / TICKS;
+		System.out.printf("%,d permission checks: %,10d ns/tick (%,.0f ns/check)%n", CHECKS_PER_TICK,
+		                  nanosPerTick, nanosPerTick / (double) CHECKS_PER_TICK);
+
+		assertEquals((long) CHECKS_PER_TICK * TICKS, granted);
+	}
+
+}
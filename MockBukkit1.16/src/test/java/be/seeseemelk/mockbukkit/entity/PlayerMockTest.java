@@ -12,6 +12,7 @@ import be.seeseemelk.mockbukkit.inventory.InventoryMock;
 import be.seeseemelk.mockbukkit.inventory.InventoryViewMock;
 import be.seeseemelk.mockbukkit.inventory.SimpleInventoryViewMock;
 import be.seeseemelk.mockbukkit.plugin.PluginManagerMock;
+import be.seeseemelk.mockbukkit.potion.ActivePotionEffect;
 import org.bukkit.Bukkit;
 import org.bukkit.GameMode;
 import org.bukkit.GameRule;
@@ -988,6 +989,27 @@ class PlayerMockTest
 
 	}
 
+	@Test
+	@SuppressWarnings("deprecation")
+	void activePotionEffect_DeprecatedConstructor_UsesMockedServer()
+	{
+		ActivePotionEffect active = new ActivePotionEffect(new PotionEffect(PotionEffectType.SPEED, 10, 1));
+		assertFalse(active.hasExpired());
+		server.getScheduler().performTicks(10L);
+		assertTrue(active.hasExpired());
+	}
+
+	@Test
+	void addPotionEffect_DurationPassed_EffectExpired()
+	{
+		PotionEffect effect = new PotionEffect(PotionEffectType.SPEED, 40, 1);
+		assertTrue(player.addPotionEffect(effect));
+		server.getScheduler().performTicks(39L);
+		assertTrue(player.hasPotionEffect(PotionEffectType.SPEED));
+		server.getScheduler().performTicks(1L);
+		assertFalse(player.hasPotionEffect(PotionEffectType.SPEED));
+	}
+
 	@Test
 	void testInstantEffect()
 	{
@@ -0,0 +1,100 @@
+package be.seeseemelk.mockbukkit.plugin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.RegisteredListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+
+/**
+ * Compares the executors created by {@link ListenerExecutorFactory} with the reflective executors created by the
+ * {@link org.bukkit.plugin.java.JavaPluginLoader}. These are excluded from the regular test run and can be executed
+ * using {@code gradle benchmark}.
+ */
+@Tag("benchmark")
+class ListenerExecutorBenchmark
+{
+	private static final int EVENTS = 5_000_000;
+	private static final int WARMUP_EVENTS = 1_000_000;
+
+	private Plugin plugin;
+
+	@BeforeEach
+	public void setUp()
+	{
+		MockBukkit.mock();
+		plugin = MockBukkit.createMockPlugin();
+	}
+
+	@AfterEach
+	public void tearDown()
+	{
+		MockBukkit.unmock();
+	}
+
+	private static double measureEventsPerSecond(RegisteredListener registered, BlockBreakEvent event)
+	        throws EventException
+	{
+		for (int i = 0; i < WARMUP_EVENTS; i++)
+		{
+			registered.callEvent(event);
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < EVENTS; i++)
+		{
+			registered.callEvent(event);
+		}
+		return EVENTS / ((System.nanoTime() - start) / 1e9);
+	}
+
+	private static RegisteredListener getOnly(Map<Class<? extends Event>, Set<RegisteredListener>> listeners)
+	{
+		return listeners.get(BlockBreakEvent.class).iterator().next();
+	}
+
+	@Test
+	void callEvent_GeneratedVersusReflective() throws EventException
+	{
+		CountingListener reflectiveListener = new CountingListener();
+		CountingListener generatedListener = new CountingListener();
+		RegisteredListener reflective = getOnly(plugin.getPluginLoader()
+		                                        .createRegisteredListeners(reflectiveListener, plugin));
+		RegisteredListener generated = getOnly(ListenerExecutorFactory
+		                                       .createRegisteredListeners(generatedListener, plugin));
+		BlockBreakEvent event = new BlockBreakEvent(null, null);
+
+		double reflectiveRate = measureEventsPerSecond(reflective, event);
+		double generatedRate = measureEventsPerSecond(generated, event);
+		System.out.printf("Reflective executor: %,15.0f events/s%n", reflectiveRate);
+		System.out.printf("Generated executor:  %,15.0f events/s (%.1fx)%n", generatedRate,
+		                  generatedRate / reflectiveRate);
+
+		assertEquals(EVENTS + WARMUP_EVENTS, reflectiveListener.calls);
+		assertEquals(EVENTS + WARMUP_EVENTS, generatedListener.calls);
+	}
+
+	public static class CountingListener implements Listener
+	{
+		private long calls;
+
+		@EventHandler
+		public void onBlockBreak(BlockBreakEvent event)
+		{
+			calls++;
+		}
+	}
+
+}
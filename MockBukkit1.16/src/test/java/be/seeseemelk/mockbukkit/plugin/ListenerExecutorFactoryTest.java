@@ -0,0 +1,264 @@
+package be.seeseemelk.mockbukkit.plugin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.server.ServerLoadEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.RegisteredListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+
+class ListenerExecutorFactoryTest
+{
+	private Plugin plugin;
+
+	@BeforeEach
+	public void setUp()
+	{
+		MockBukkit.mock();
+		plugin = MockBukkit.createMockPlugin();
+	}
+
+	@AfterEach
+	public void tearDown()
+	{
+		MockBukkit.unmock();
+	}
+
+	private static RegisteredListener getOnly(Map<Class<? extends Event>, Set<RegisteredListener>> listeners,
+	        Class<? extends Event> eventClass)
+	{
+		Set<RegisteredListener> registered = listeners.get(eventClass);
+		assertEquals(1, registered.size());
+		return registered.iterator().next();
+	}
+
+	@Test
+	void createRegisteredListeners_PublicListener_HandlerCalled() throws EventException
+	{
+		PublicListener listener = new PublicListener();
+		Map<Class<? extends Event>, Set<RegisteredListener>> listeners =
+		    ListenerExecutorFactory.createRegisteredListeners(listener, plugin);
+
+		assertEquals(2, listeners.size());
+		BlockBreakEvent event = new BlockBreakEvent(null, null);
+		getOnly(listeners, BlockBreakEvent.class).callEvent(event);
+		assertSame(event, listener.lastEvent);
+	}
+
+	@Test
+	void createRegisteredListeners_AnnotationValues_Copied()
+	{
+		Map<Class<? extends Event>, Set<RegisteredListener>> listeners =
+		    ListenerExecutorFactory.createRegisteredListeners(new PublicListener(), plugin);
+
+		RegisteredListener registered = getOnly(listeners, ServerLoadEvent.class);
+		assertEquals(EventPriority.HIGH, registered.getPriority());
+		assertTrue(registered.isIgnoringCancelled());
+		assertSame(plugin, registered.getPlugin());
+	}
+
+	@Test
+	void createRegisteredListeners_PrivateHandler_HandlerCalled() throws EventException
+	{
+		PrivateListener listener = new PrivateListener();
+		Map<Class<? extends Event>, Set<RegisteredListener>> listeners =
+		    ListenerExecutorFactory.createRegisteredListeners(listener, plugin);
+
+		getOnly(listeners, BlockBreakEvent.class).callEvent(new BlockBreakEvent(null, null));
+		assertEquals(1, listener.calls);
+	}
+
+	@Test
+	void createRegisteredListeners_InheritedHandler_HandlerCalled() throws EventException
+	{
+		PublicListener listener = new PublicListener() {};
+		Map<Class<? extends Event>, Set<RegisteredListener>> listeners =
+		    ListenerExecutorFactory.createRegisteredListeners(listener, plugin);
+
+		BlockBreakEvent event = new BlockBreakEvent(null, null);
+		getOnly(listeners, BlockBreakEvent.class).callEvent(event);
+		assertSame(event, listener.lastEvent);
+	}
+
+	@Test
+	void callEvent_OtherEventType_Ignored() throws EventException
+	{
+		PublicListener listener = new PublicListener();
+		Map<Class<? extends Event>, Set<RegisteredListener>> listeners =
+		    ListenerExecutorFactory.createRegisteredListeners(listener, plugin);
+
+		getOnly(listeners, BlockBreakEvent.class).callEvent(new ServerLoadEvent(ServerLoadEvent.LoadType.STARTUP));
+		assertEquals(null, listener.lastEvent);
+	}
+
+	@Test
+	void callEvent_HandlerThrows_WrappedInEventException()
+	{
+		Map<Class<? extends Event>, Set<RegisteredListener>> listeners =
+		    ListenerExecutorFactory.createRegisteredListeners(new ThrowingListener(), plugin);
+
+		RegisteredListener registered = getOnly(listeners, BlockBreakEvent.class);
+		EventException exception = assertThrows(EventException.class,
+		                                        () -> registered.callEvent(new BlockBreakEvent(null, null)));
+		assertTrue(exception.getCause() instanceof IllegalStateException);
+	}
+
+	@Test
+	void createRegisteredListeners_StaticHandlers_HandlersCalled() throws EventException
+	{
+		Map<Class<? extends Event>, Set<RegisteredListener>> listeners =
+		    ListenerExecutorFactory.createRegisteredListeners(new StaticListener(), plugin);
+
+		BlockBreakEvent event = new BlockBreakEvent(null, null);
+		getOnly(listeners, BlockBreakEvent.class).callEvent(event);
+		assertSame(event, StaticListener.lastBlockBreak);
+
+		ServerLoadEvent load = new ServerLoadEvent(ServerLoadEvent.LoadType.STARTUP);
+		getOnly(listeners, ServerLoadEvent.class).callEvent(load);
+		assertSame(load, StaticListener.lastServerLoad);
+	}
+
+	@Test
+	void createRegisteredListeners_InvalidSignature_Skipped()
+	{
+		Map<Class<? extends Event>, Set<RegisteredListener>> listeners =
+		    ListenerExecutorFactory.createRegisteredListeners(new InvalidListener(), plugin);
+		assertTrue(listeners.isEmpty());
+	}
+
+	@Test
+	void createRegisteredListeners_InvalidSignature_LoggedToPlugin()
+	{
+		List<LogRecord> records = new ArrayList<>();
+		Handler handler = new Handler()
+		{
+			@Override
+			public void publish(LogRecord record)
+			{
+				records.add(record);
+			}
+
+			@Override
+			public void flush()
+			{
+			}
+
+			@Override
+			public void close()
+			{
+			}
+		};
+		plugin.getLogger().addHandler(handler);
+		try
+		{
+			ListenerExecutorFactory.createRegisteredListeners(new InvalidListener(), plugin);
+		}
+		finally
+		{
+			plugin.getLogger().removeHandler(handler);
+		}
+
+		assertEquals(1, records.size());
+		assertEquals(Level.SEVERE, records.get(0).getLevel());
+		assertTrue(records.get(0).getMessage().contains(InvalidListener.class.getName()));
+	}
+
+	@Test
+	void registerEvents_PluginManager_UsesGeneratedExecutors()
+	{
+		PublicListener listener = new PublicListener();
+		MockBukkit.getMock().getPluginManager().registerEvents(listener, plugin);
+		BlockBreakEvent event = new BlockBreakEvent(null, null);
+		MockBukkit.getMock().getPluginManager().callEvent(event);
+		assertSame(event, listener.lastEvent);
+		assertFalse(event.isCancelled());
+	}
+
+	public static class PublicListener implements Listener
+	{
+		private Event lastEvent;
+
+		@EventHandler
+		public void onBlockBreak(BlockBreakEvent event)
+		{
+			lastEvent = event;
+		}
+
+		@EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+		public boolean onServerLoad(ServerLoadEvent event)
+		{
+			lastEvent = event;
+			return true;
+		}
+	}
+
+	private static class PrivateListener implements Listener
+	{
+		private int calls;
+
+		@EventHandler
+		private void onBlockBreak(BlockBreakEvent event)
+		{
+			calls++;
+		}
+	}
+
+	public static class ThrowingListener implements Listener
+	{
+		@EventHandler
+		public void onBlockBreak(BlockBreakEvent event)
+		{
+			throw new IllegalStateException("Handler failed");
+		}
+	}
+
+	public static class StaticListener implements Listener
+	{
+		private static Event lastBlockBreak;
+		private static Event lastServerLoad;
+
+		@EventHandler
+		public static void onBlockBreak(BlockBreakEvent event)
+		{
+			lastBlockBreak = event;
+		}
+
+		@EventHandler
+		private static void onServerLoad(ServerLoadEvent event)
+		{
+			lastServerLoad = event;
+		}
+	}
+
+	public static class InvalidListener implements Listener
+	{
+		@EventHandler
+		public void onNothing(String notAnEvent)
+		{
+			// Not a valid handler.
+		}
+	}
+
+}
@@ -0,0 +1,134 @@
+package be.seeseemelk.mockbukkit.plugin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.plugin.ListenerProfiler.HandlerStatistics;
+
+class ListenerProfilerTest
+{
+	private PluginManagerMock pluginManager;
+	private Plugin plugin;
+
+	@BeforeEach
+	public void setUp()
+	{
+		pluginManager = MockBukkit.mock().getPluginManager();
+		plugin = MockBukkit.createMockPlugin();
+		pluginManager.registerEvents(new ProfiledListener(), plugin);
+	}
+
+	@AfterEach
+	public void tearDown()
+	{
+		MockBukkit.unmock();
+	}
+
+	private static HandlerStatistics find(List<HandlerStatistics> statistics, EventPriority priority)
+	{
+		return statistics.stream().filter(handler -> handler.getPriority() == priority).findFirst().get();
+	}
+
+	@Test
+	void callEvent_ProfilingDisabled_NothingRecorded()
+	{
+		pluginManager.callEvent(new BlockBreakEvent(null, null));
+		assertTrue(pluginManager.getListenerProfiler().getStatistics().isEmpty());
+	}
+
+	@Test
+	void callEvent_ProfilingEnabled_HandlersRecorded()
+	{
+		pluginManager.setListenerProfilingEnabled(true);
+		pluginManager.callEvent(new BlockBreakEvent(null, null));
+		pluginManager.callEvent(new BlockBreakEvent(null, null));
+
+		List<HandlerStatistics> statistics = pluginManager.getListenerProfiler().getStatistics(plugin);
+		assertEquals(3, statistics.size());
+		for (HandlerStatistics handler : statistics)
+		{
+			assertEquals(2, handler.getCalls());
+			assertSame(plugin, handler.getPlugin());
+			assertEquals(ProfiledListener.class, handler.getListenerClass());
+			assertEquals(BlockBreakEvent.class, handler.getEventClass());
+		}
+
+		assertEquals(2, find(statistics, EventPriority.LOW).getCancellations());
+		assertEquals(0, find(statistics, EventPriority.LOW).getExceptions());
+		assertEquals(2, find(statistics, EventPriority.HIGH).getExceptions());
+		assertEquals(0, find(statistics, EventPriority.HIGH).getCancellations());
+	}
+
+	@Test
+	void getStatistics_SlowHandler_SortedFirst()
+	{
+		pluginManager.setListenerProfilingEnabled(true);
+		pluginManager.callEvent(new BlockBreakEvent(null, null));
+
+		List<HandlerStatistics> statistics = pluginManager.getListenerProfiler().getStatistics();
+		assertEquals(EventPriority.MONITOR, statistics.get(0).getPriority());
+		assertTrue(statistics.get(0).getMaxNanos() >= 5_000_000L);
+		assertTrue(pluginManager.getListenerProfiler().getReport().contains(ProfiledListener.class.getName()));
+	}
+
+	@Test
+	void toJson_HandlersRecorded_OneObjectPerHandler()
+	{
+		pluginManager.setListenerProfilingEnabled(true);
+		pluginManager.callEvent(new BlockBreakEvent(null, null));
+
+		JsonArray json = pluginManager.getListenerProfiler().toJson();
+		assertEquals(3, json.size());
+		JsonObject slowest = json.get(0).getAsJsonObject();
+		assertEquals("MONITOR", slowest.get("priority").getAsString());
+		assertEquals(BlockBreakEvent.class.getName(), slowest.get("event").getAsString());
+		assertEquals(1, slowest.get("calls").getAsLong());
+	}
+
+	@Test
+	void reset_Recorded_Cleared()
+	{
+		pluginManager.setListenerProfilingEnabled(true);
+		pluginManager.callEvent(new BlockBreakEvent(null, null));
+		pluginManager.getListenerProfiler().reset();
+		assertTrue(pluginManager.getListenerProfiler().getStatistics().isEmpty());
+	}
+
+	public static class ProfiledListener implements Listener
+	{
+		@EventHandler(priority = EventPriority.LOW)
+		public void cancel(BlockBreakEvent event)
+		{
+			event.setCancelled(true);
+		}
+
+		@EventHandler(priority = EventPriority.HIGH)
+		public void fail(BlockBreakEvent event)
+		{
+			throw new IllegalStateException("Handler failed");
+		}
+
+		@EventHandler(priority = EventPriority.MONITOR)
+		public void slow(BlockBreakEvent event) throws InterruptedException
+		{
+			Thread.sleep(5);
+		}
+	}
+
+}
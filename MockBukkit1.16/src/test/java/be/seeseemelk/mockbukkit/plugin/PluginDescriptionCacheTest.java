@@ -0,0 +1,59 @@
+package be.seeseemelk.mockbukkit.plugin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+
+import org.bukkit.plugin.InvalidDescriptionException;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.junit.jupiter.api.Test;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.SecondTestPlugin;
+import be.seeseemelk.mockbukkit.TestPlugin;
+
+class PluginDescriptionCacheTest
+{
+	@Test
+	void find_PluginWithDescription_Found() throws IOException, InvalidDescriptionException
+	{
+		PluginDescriptionFile description = PluginDescriptionCache.find(TestPlugin.class);
+		assertEquals("MockBukkitTestPlugin", description.getName());
+		assertEquals(TestPlugin.class.getName(), description.getMain());
+	}
+
+	@Test
+	void find_CalledTwice_SameDescription() throws IOException, InvalidDescriptionException
+	{
+		assertSame(PluginDescriptionCache.find(TestPlugin.class), PluginDescriptionCache.find(TestPlugin.class));
+	}
+
+	@Test
+	void find_PluginWithoutDescription_Throws()
+	{
+		assertThrows(FileNotFoundException.class, () -> PluginDescriptionCache.find(SecondTestPlugin.class));
+	}
+
+	@Test
+	void load_SeveralServers_DescriptionShared()
+	{
+		try
+		{
+			MockBukkit.mock();
+			PluginDescriptionFile first = MockBukkit.load(TestPlugin.class).getDescription();
+			MockBukkit.unmock();
+
+			MockBukkit.mock();
+			PluginDescriptionFile second = MockBukkit.load(TestPlugin.class).getDescription();
+			assertSame(first, second);
+		}
+		finally
+		{
+			MockBukkit.unmock();
+		}
+	}
+
+}
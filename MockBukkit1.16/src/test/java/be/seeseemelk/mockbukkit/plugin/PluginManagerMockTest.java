@@ -2,27 +2,47 @@ package be.seeseemelk.mockbukkit.plugin;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.io.File;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.bukkit.command.PluginCommand;
 import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.player.AsyncPlayerChatEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.event.server.PluginDisableEvent;
 import org.bukkit.permissions.Permission;
 import org.bukkit.permissions.PermissionDefault;
+import org.bukkit.plugin.IllegalPluginAccessException;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.ServicePriority;
+import org.bukkit.scheduler.BukkitTask;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.MockPlugin;
 import be.seeseemelk.mockbukkit.ServerMock;
 import be.seeseemelk.mockbukkit.TestPlugin;
 
@@ -171,6 +191,168 @@ class PluginManagerMockTest
 		assertFalse(pluginManager.getDefaultPermissions(true).contains(permission));
 	}
 
+	@Test
+	void getPlugin_DifferentCase_Plugin()
+	{
+		assertSame(plugin, pluginManager.getPlugin("mockbukkittestplugin"));
+		assertTrue(pluginManager.isPluginEnabled("MOCKBUKKITTESTPLUGIN"));
+	}
+
+	@Test
+	void isPluginEnabled_UnregisteredPlugin_False()
+	{
+		assertTrue(pluginManager.isPluginEnabled(plugin));
+		pluginManager.clearPlugins();
+		assertFalse(pluginManager.isPluginEnabled(plugin));
+		assertNull(pluginManager.getPlugin("MockBukkitTestPlugin"));
+	}
+
+	@Test
+	void getDefaultPermissions_PermissionAddedAfterwards_SnapshotUnchanged()
+	{
+		Set<Permission> defaults = pluginManager.getDefaultPermissions(true);
+		Permission permission = new Permission("mockbukkit.perm", PermissionDefault.OP);
+		pluginManager.addPermission(permission);
+		assertFalse(defaults.contains(permission));
+		assertTrue(pluginManager.getDefaultPermissions(true).contains(permission));
+	}
+
+	@Test
+	void getDefaultPermissions_AddedFromOtherThreadWhileIterating_NoConcurrentModification() throws Exception
+	{
+		for (int i = 0; i < 100; i++)
+		{
+			pluginManager.addPermission(new Permission("mockbukkit.perm" + i, PermissionDefault.TRUE));
+		}
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try
+		{
+			Future<?> writer = executor.submit(() ->
+			{
+				for (int i = 100; i < 1100; i++)
+				{
+					pluginManager.addPermission(new Permission("mockbukkit.perm" + i, PermissionDefault.TRUE));
+				}
+			});
+			while (!writer.isDone())
+			{
+				for (Permission permission : pluginManager.getDefaultPermissions(false))
+				{
+					assertNotNull(permission);
+				}
+			}
+			writer.get();
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+		assertEquals(1100, pluginManager.getDefaultPermissions(false).size());
+	}
+
+	@Test
+	void getPermission_DifferentCase_SamePermission()
+	{
+		Permission permission = new Permission("MockBukkit.Perm");
+		pluginManager.addPermission(permission);
+		assertSame(permission, pluginManager.getPermission("mockbukkit.perm"));
+	}
+
+	@Test
+	void addPermission_AlreadyDefined_Throws()
+	{
+		pluginManager.addPermission(new Permission("mockbukkit.perm"));
+		assertThrows(IllegalArgumentException.class,
+		             () -> pluginManager.addPermission(new Permission("MOCKBUKKIT.PERM")));
+	}
+
+	@Test
+	void removePermission_Name_PermissionRemoved()
+	{
+		Permission permission = new Permission("mockbukkit.perm", PermissionDefault.TRUE);
+		pluginManager.addPermission(permission);
+		pluginManager.removePermission("mockbukkit.perm");
+		assertNull(pluginManager.getPermission("mockbukkit.perm"));
+		assertFalse(pluginManager.getDefaultPermissions(true).contains(permission));
+		assertFalse(pluginManager.getDefaultPermissions(false).contains(permission));
+	}
+
+	@Test
+	void getDefaultPermissions_NotOpPermission_OnlyForNonOps()
+	{
+		Permission permission = new Permission("mockbukkit.perm", PermissionDefault.NOT_OP);
+		pluginManager.addPermission(permission);
+		assertTrue(pluginManager.getDefaultPermissions(false).contains(permission));
+		assertFalse(pluginManager.getDefaultPermissions(true).contains(permission));
+	}
+
+	@Test
+	void setDefault_AddedPermission_DefaultsRecalculated()
+	{
+		Permission permission = new Permission("mockbukkit.perm", PermissionDefault.FALSE);
+		pluginManager.addPermission(permission);
+		assertFalse(pluginManager.getDefaultPermissions(true).contains(permission));
+
+		permission.setDefault(PermissionDefault.OP);
+		assertTrue(pluginManager.getDefaultPermissions(true).contains(permission));
+		assertFalse(pluginManager.getDefaultPermissions(false).contains(permission));
+	}
+
+	@Test
+	void subscribeToPermission_DifferentCase_Subscribed()
+	{
+		Player player = server.addPlayer();
+		pluginManager.subscribeToPermission("MockBukkit.Perm", player);
+		assertTrue(pluginManager.getPermissionSubscriptions("mockbukkit.perm").contains(player));
+
+		pluginManager.unsubscribeFromPermission("mockbukkit.perm", player);
+		assertTrue(pluginManager.getPermissionSubscriptions("mockbukkit.perm").isEmpty());
+	}
+
+	@Test
+	void subscribeToDefaultPerms_Op_OnlyOpSubscribed()
+	{
+		Player player = server.addPlayer();
+		pluginManager.subscribeToDefaultPerms(true, player);
+		assertTrue(pluginManager.getDefaultPermSubscriptions(true).contains(player));
+		assertFalse(pluginManager.getDefaultPermSubscriptions(false).contains(player));
+
+		pluginManager.unsubscribeFromDefaultPerms(true, player);
+		assertTrue(pluginManager.getDefaultPermSubscriptions(true).isEmpty());
+	}
+
+	@Test
+	void loadPlugin_LazyPluginFiles_NothingCreatedOnDisk()
+	{
+		pluginManager.setLazyPluginFiles(true);
+		MockPlugin lazyPlugin = MockBukkit.createMockPlugin();
+		assertFalse(lazyPlugin.getDataFolder().exists());
+		assertFalse(new File(lazyPlugin.getDataFolder().getParentFile(), "MockPlugin-1.0.0-0.jar").exists());
+
+		lazyPlugin.getConfig().set("key", "value");
+		assertEquals("value", lazyPlugin.getConfig().getString("key"));
+		assertFalse(lazyPlugin.getDataFolder().exists());
+	}
+
+	@Test
+	void loadPlugin_LazyPluginFilesSaved_RemovedOnUnload()
+	{
+		pluginManager.setLazyPluginFiles(true);
+		MockPlugin lazyPlugin = MockBukkit.createMockPlugin();
+		MockPlugin otherPlugin = MockBukkit.createMockPlugin();
+		assertNotEquals(lazyPlugin.getDataFolder(), otherPlugin.getDataFolder());
+
+		lazyPlugin.getConfig().set("key", "value");
+		lazyPlugin.saveConfig();
+		File config = new File(lazyPlugin.getDataFolder(), "config.yml");
+		assertTrue(config.isFile());
+
+		MockBukkit.unmock();
+		assertFalse(config.exists());
+		assertFalse(lazyPlugin.getDataFolder().getParentFile().exists());
+		MockBukkit.mock();
+	}
+
 	@Test
 	void disablePlugin_LoadedPlugin_PluginDisabled()
 	{
@@ -203,4 +385,156 @@ class PluginManagerMockTest
 		assertEquals(0, plugins.length);
 	}
 
+	@Test
+	void countEventsSince_Marker_OnlyCountsNewEvents()
+	{
+		pluginManager.callEvent(new BlockBreakEvent(null, null));
+		long marker = pluginManager.markEvents();
+		pluginManager.callEvent(new BlockBreakEvent(null, null));
+		pluginManager.callEvent(new BlockBreakEvent(null, null));
+		pluginManager.callEvent(new PlayerInteractEvent(null, null, null, null, null));
+
+		assertEquals(2, pluginManager.countEventsSince(BlockBreakEvent.class, marker));
+		assertEquals(3, pluginManager.countEvents(BlockBreakEvent.class));
+		assertEquals(3, pluginManager.countEventsSince(Event.class, marker));
+	}
+
+	@Test
+	void getFiredEvents_SuperClass_InFiringOrder()
+	{
+		pluginManager.clearEvents();
+		BlockBreakEvent first = new BlockBreakEvent(null, null);
+		PlayerInteractEvent second = new PlayerInteractEvent(null, null, null, null, null);
+		BlockBreakEvent third = new BlockBreakEvent(null, null);
+		pluginManager.callEvent(first);
+		pluginManager.callEvent(second);
+		pluginManager.callEvent(third);
+
+		assertEquals(Arrays.asList(first, second, third), pluginManager.getFiredEvents(Event.class));
+		assertEquals(Arrays.asList(first, third), pluginManager.getFiredEvents(BlockBreakEvent.class));
+	}
+
+	@Test
+	void setEventHistoryPolicy_RingBuffer_KeepsMostRecent()
+	{
+		pluginManager.setEventHistoryPolicy(EventHistoryPolicy.ringBuffer(2));
+		BlockBreakEvent first = new BlockBreakEvent(null, null);
+		PlayerInteractEvent second = new PlayerInteractEvent(null, null, null, null, null);
+		BlockBreakEvent third = new BlockBreakEvent(null, null);
+		pluginManager.callEvent(first);
+		pluginManager.callEvent(second);
+		pluginManager.callEvent(third);
+
+		assertEquals(Arrays.asList(second, third), pluginManager.getFiredEvents(Event.class));
+		assertEquals(1, pluginManager.countEvents(BlockBreakEvent.class));
+	}
+
+	@Test
+	void setEventHistoryPolicy_None_NothingRemembered()
+	{
+		pluginManager.setEventHistoryPolicy(EventHistoryPolicy.none());
+		pluginManager.callEvent(new BlockBreakEvent(null, null));
+		assertThrows(AssertionError.class, () -> pluginManager.assertEventFired(BlockBreakEvent.class));
+		assertEquals(0, pluginManager.countEvents(Event.class));
+	}
+
+	@Test
+	void setEventHistoryPolicy_OnlySomeTypes_OthersForgotten()
+	{
+		pluginManager.callEvent(new PlayerInteractEvent(null, null, null, null, null));
+		pluginManager.setEventHistoryPolicy(EventHistoryPolicy.only(BlockBreakEvent.class));
+		pluginManager.callEvent(new BlockBreakEvent(null, null));
+		pluginManager.callEvent(new PlayerInteractEvent(null, null, null, null, null));
+
+		pluginManager.assertEventFired(BlockBreakEvent.class);
+		assertThrows(AssertionError.class, () -> pluginManager.assertEventFired(PlayerInteractEvent.class));
+		assertEquals(1, pluginManager.countEvents(Event.class));
+	}
+
+	@Test
+	void callEvent_ManyAsyncThreads_AllEventsRecorded() throws InterruptedException
+	{
+		int threads = 8;
+		int eventsPerThread = 10_000;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		for (int i = 0; i < threads; i++)
+		{
+			executor.execute(() ->
+			{
+				try
+				{
+					start.await();
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+					return;
+				}
+				for (int j = 0; j < eventsPerThread; j++)
+				{
+					pluginManager.callEvent(new AsyncPlayerChatEvent(true, null, "spam", Collections.emptySet()));
+				}
+			});
+		}
+		start.countDown();
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+		assertEquals(threads * eventsPerThread, pluginManager.countEvents(AsyncPlayerChatEvent.class));
+	}
+
+	@Test
+	void registerEvent_EventWithoutHandlerList_UsesParentHandlerList()
+	{
+		Listener listener = new Listener() {};
+		pluginManager.registerEvent(SubBlockBreakEvent.class, listener, EventPriority.NORMAL, (l, e) -> {}, plugin);
+		pluginManager.registerEvent(SubBlockBreakEvent.class, listener, EventPriority.HIGH, (l, e) -> {}, plugin);
+
+		long registered = Arrays.stream(BlockBreakEvent.getHandlerList().getRegisteredListeners())
+		                  .filter(registration -> registration.getListener() == listener).count();
+		assertEquals(2, registered);
+		HandlerList.unregisterAll(listener);
+	}
+
+	@Test
+	void registerEvent_NoHandlerListAnywhere_Throws()
+	{
+		assertThrows(IllegalPluginAccessException.class, () -> pluginManager.registerEvent(NoHandlerListEvent.class,
+		             new Listener() {}, EventPriority.NORMAL, (l, e) -> {}, plugin));
+	}
+
+	@Test
+	void disablePlugin_PluginWithState_StateReleased()
+	{
+		pluginManager.registerEvents(plugin, plugin);
+		BukkitTask task = server.getScheduler().runTaskTimer(plugin, () -> {}, 1L, 1L);
+		server.getServicesManager().register(Runnable.class, () -> {}, plugin, ServicePriority.Normal);
+
+		pluginManager.disablePlugin(plugin);
+
+		assertFalse(Arrays.stream(BlockBreakEvent.getHandlerList().getRegisteredListeners())
+		            .anyMatch(registration -> registration.getPlugin() == plugin));
+		assertTrue(task.isCancelled());
+		assertTrue(server.getServicesManager().getRegistrations(plugin).isEmpty());
+		assertTrue(server.getLeakReport().isEmpty());
+	}
+
+	private static class SubBlockBreakEvent extends BlockBreakEvent
+	{
+		SubBlockBreakEvent()
+		{
+			super(null, null);
+		}
+	}
+
+	private static class NoHandlerListEvent extends Event
+	{
+		@Override
+		public HandlerList getHandlers()
+		{
+			return null;
+		}
+	}
+
 }
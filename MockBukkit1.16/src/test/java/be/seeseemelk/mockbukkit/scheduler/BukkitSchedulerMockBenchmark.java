@@ -0,0 +1,47 @@
+package be.seeseemelk.mockbukkit.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Benchmarks for the {@link BukkitSchedulerMock}. These are excluded from the regular test run and can be executed
+ * using {@code gradle benchmark}.
+ */
+@Tag("benchmark")
+class BukkitSchedulerMockBenchmark
+{
+	private static final int TICKS = 20_000;
+	private static final int WARMUP_TICKS = 5_000;
+
+	private static long measureNanosPerTick(int idleTimers)
+	{
+		BukkitSchedulerMock scheduler = new BukkitSchedulerMock();
+		for (int i = 0; i < idleTimers; i++)
+		{
+			// Timers which will never become due during the benchmark.
+			scheduler.runTaskTimer(null, () -> {}, 10_000_000L, 10_000_000L);
+		}
+		scheduler.runTaskTimer(null, () -> {}, 1L, 1L);
+
+		scheduler.performTicks(WARMUP_TICKS);
+		long start = System.nanoTime();
+		scheduler.performTicks(TICKS);
+		return (System.nanoTime() - start) / TICKS;
+	}
+
+	@Test
+	void performOneTick_IdleTimers_TickCostStaysFlat()
+	{
+		long baseline = measureNanosPerTick(0);
+		System.out.printf("%,8d idle timers: %,8d ns/tick%n", 0, baseline);
+		for (int idleTimers : new int[] { 1_000, 10_000, 50_000 })
+		{
+			long nanosPerTick = measureNanosPerTick(idleTimers);
+			System.out.printf("%,8d idle timers: %,8d ns/tick%n", idleTimers, nanosPerTick);
+			assertTrue(nanosPerTick < Math.max(baseline * 20, 20_000),
+			           "Tick cost grew with the number of idle timers");
+		}
+	}
+}
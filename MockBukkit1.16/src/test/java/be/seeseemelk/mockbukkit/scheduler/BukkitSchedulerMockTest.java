@@ -4,15 +4,24 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import be.seeseemelk.mockbukkit.MockBukkit;
 import be.seeseemelk.mockbukkit.TestPlugin;
@@ -86,6 +95,55 @@ class BukkitSchedulerMockTest
 		assertEquals(2, count.get());
 	}
 
+	@Test
+	void performTicks_FastForward_SameResultAsStepping()
+	{
+		AtomicInteger count = new AtomicInteger(0);
+		AtomicInteger lastTick = new AtomicInteger(0);
+		scheduler.setFastForward(true);
+		assertTrue(scheduler.isFastForward());
+		scheduler.runTaskTimer(null, () ->
+		{
+			count.incrementAndGet();
+			lastTick.set((int) scheduler.getCurrentTick());
+		}, 5L, 7L);
+		scheduler.runTaskLater(null, () -> count.addAndGet(100), 500L);
+		scheduler.performTicks(1000L);
+		assertEquals(1000, scheduler.getCurrentTick());
+		assertEquals(143 + 100, count.get());
+		assertEquals(999, lastTick.get());
+	}
+
+	@Test
+	void performTicks_FastForwardWithTickListener_ListenerCalledEveryTick()
+	{
+		AtomicInteger calls = new AtomicInteger(0);
+		scheduler.setFastForward(true);
+		scheduler.addTickListener(tick -> assertEquals(calls.incrementAndGet(), tick));
+		scheduler.performTicks(50L);
+		assertEquals(50, calls.get());
+	}
+
+	@Test
+	void performTicksUntil_ConditionMet_StopsAtThatTick()
+	{
+		AtomicInteger count = new AtomicInteger(0);
+		scheduler.setFastForward(true);
+		scheduler.runTaskTimer(null, count::incrementAndGet, 20L, 20L);
+		assertEquals(60, scheduler.performTicksUntil(() -> count.get() == 3));
+		assertEquals(60, scheduler.getCurrentTick());
+		assertEquals(0, scheduler.performTicksUntil(() -> count.get() == 3));
+		assertEquals(10, scheduler.performTicksUntil(() -> false, 10L));
+	}
+
+	@Test
+	void performTicksUntil_NothingScheduled_Stops()
+	{
+		assertEquals(0, scheduler.performTicksUntil(() -> false));
+		scheduler.runTaskLater(null, () -> {}, 5L);
+		assertEquals(5, scheduler.performTicksUntil(() -> false));
+	}
+
 	private BukkitTask testTask; /* This is needed because a lambda can't reach writable closures */
 
 	@Test
@@ -106,6 +164,18 @@ class BukkitSchedulerMockTest
 		assertEquals(2, count.get());
 	}
 
+	@Test
+	void performOneTick_TasksDueOnSameTick_ExecutedInSchedulingOrder()
+	{
+		StringBuilder order = new StringBuilder();
+		scheduler.runTaskLater(null, () -> order.append('a'), 3L);
+		scheduler.runTaskTimer(null, () -> order.append('b'), 1L, 1L);
+		scheduler.runTaskLater(null, () -> order.append('c'), 3L);
+		scheduler.runTaskLater(null, () -> order.append('d'), 100L);
+		scheduler.performTicks(3L);
+		assertEquals("bbabc", order.toString());
+	}
+
 	@Test
 	void runTaskTimer_ZeroDelay_DoesntExecuteTaskImmediately()
 	{
@@ -184,6 +254,55 @@ class BukkitSchedulerMockTest
 		assertEquals(2, count.get());
 	}
 
+	@Test
+	void runTaskAsynchronously_DeterministicPolicy_RunsInOrderOnWorkerThread()
+	{
+		final Thread mainThread = Thread.currentThread();
+		scheduler.setAsyncExecutionPolicy(AsyncExecutionPolicy.DETERMINISTIC);
+		assertEquals(AsyncExecutionPolicy.DETERMINISTIC, scheduler.getAsyncExecutionPolicy());
+
+		List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+		Set<Thread> threads = Collections.synchronizedSet(new HashSet<>());
+		for (int i = 0; i < 100; i++)
+		{
+			int index = i;
+			scheduler.runTaskAsynchronously(null, () ->
+			{
+				threads.add(Thread.currentThread());
+				order.add(index);
+			});
+		}
+		assertTrue(order.isEmpty());
+
+		scheduler.performOneTick();
+		assertEquals(IntStream.range(0, 100).boxed().collect(Collectors.toList()), order);
+		assertEquals(1, threads.size());
+		assertFalse(threads.contains(mainThread));
+		scheduler.shutdown();
+	}
+
+	@Test
+	void runTaskAsynchronously_RandomizedPolicy_SameSeedSameOrder()
+	{
+		assertEquals(runShuffledTasks(42L), runShuffledTasks(42L));
+		assertNotEquals(runShuffledTasks(42L), runShuffledTasks(43L));
+	}
+
+	private static List<Integer> runShuffledTasks(long seed)
+	{
+		BukkitSchedulerMock scheduler = new BukkitSchedulerMock();
+		scheduler.setAsyncExecutionPolicy(AsyncExecutionPolicy.RANDOMIZED, seed);
+		List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+		for (int i = 0; i < 50; i++)
+		{
+			int index = i;
+			scheduler.runTaskAsynchronously(null, () -> order.add(index));
+		}
+		scheduler.performOneTick();
+		scheduler.shutdown();
+		return new ArrayList<>(order);
+	}
+
 	@Test
 	public void cancellingAsyncTaskDecreasesNumberOfQueuedAsyncTasks()
 	{
@@ -194,6 +313,113 @@ class BukkitSchedulerMockTest
 		assertEquals(0, scheduler.getNumberOfQueuedAsyncTasks());
 	}
 
+	@Test
+	void finishedAndCancelledTasks_AreRemoved()
+	{
+		BukkitTask oneShot = scheduler.runTaskLater(null, () -> {}, 1L);
+		BukkitTask cancelled = scheduler.runTaskLater(null, () -> {}, 5L);
+		BukkitTask timer = scheduler.runTaskTimer(null, () -> {}, 1L, 1L);
+		assertEquals(3, scheduler.getLiveTaskCount());
+
+		cancelled.cancel();
+		assertEquals(2, scheduler.getLiveTaskCount());
+		assertEquals(1, scheduler.getCancelledTaskCount());
+
+		scheduler.performOneTick();
+		assertFalse(scheduler.isQueued(oneShot.getTaskId()));
+		assertTrue(scheduler.isQueued(timer.getTaskId()));
+		assertEquals(1, scheduler.getLiveTaskCount());
+		assertEquals(1, scheduler.getCompletedTaskCount());
+
+		timer.cancel();
+		assertEquals(0, scheduler.getLiveTaskCount());
+		assertEquals(2, scheduler.getCancelledTaskCount());
+	}
+
+	@Test
+	void performTicksUntil_CancelledQueuedAndPolledTasks_StopsAfterLastTask()
+	{
+		List<BukkitTask> cancelled = new ArrayList<>();
+		for (int i = 0; i < 100; i++)
+		{
+			cancelled.add(scheduler.runTaskLater(null, () -> {}, 50L));
+		}
+		BukkitTask last = scheduler.runTaskLater(null, () -> {}, 10L);
+		cancelled.forEach(BukkitTask::cancel);
+
+		assertEquals(10, scheduler.performTicksUntil(() -> false, 1000));
+		assertFalse(scheduler.isQueued(last.getTaskId()));
+
+		// A task cancelling itself while it runs is no longer queued, so it leaves no stale entry behind.
+		AtomicReference<BukkitTask> selfCancelling = new AtomicReference<>();
+		selfCancelling.set(scheduler.runTaskLater(null, () -> selfCancelling.get().cancel(), 1L));
+		scheduler.performOneTick();
+		BukkitTask next = scheduler.runTaskLater(null, () -> {}, 5L);
+		assertEquals(5, scheduler.performTicksUntil(() -> false, 1000));
+		assertFalse(scheduler.isQueued(next.getTaskId()));
+	}
+
+	@Test
+	void performOneTick_TaskThrows_RemainingTasksRunNextTick()
+	{
+		AtomicInteger runs = new AtomicInteger();
+		scheduler.runTask(null, () ->
+		{
+			throw new IllegalStateException("Task failed");
+		});
+		BukkitTask later = scheduler.runTask(null, runs::incrementAndGet);
+		BukkitTask timer = scheduler.runTaskTimer(null, runs::incrementAndGet, 0L, 1L);
+
+		assertThrows(IllegalStateException.class, scheduler::performOneTick);
+		assertEquals(0, runs.get());
+		assertTrue(scheduler.isQueued(later.getTaskId()));
+		assertTrue(scheduler.isQueued(timer.getTaskId()));
+
+		scheduler.performOneTick();
+		assertEquals(2, runs.get());
+		assertFalse(scheduler.isQueued(later.getTaskId()));
+		assertEquals(1, scheduler.getLiveTaskCount());
+		timer.cancel();
+	}
+
+	@Test
+	void performTicksUntil_TasksCancelledFromOtherThreadWhileTicking_StopsWhenQueueIsEmpty()
+	        throws InterruptedException
+	{
+		List<BukkitTask> tasks = new ArrayList<>();
+		for (int i = 0; i < 1000; i++)
+		{
+			tasks.add(scheduler.runTaskLater(null, () -> {}, 1L + i % 5));
+		}
+		Thread canceller = new Thread(() -> tasks.forEach(BukkitTask::cancel));
+		canceller.start();
+		for (int i = 0; i < 5; i++)
+		{
+			scheduler.performOneTick();
+		}
+		canceller.join();
+
+		assertEquals(0, scheduler.performTicksUntil(() -> false, 1000));
+	}
+
+	@Test
+	void getRecentlyFinishedTasks_KeepsBoundedHistory()
+	{
+		assertTrue(scheduler.getRecentlyFinishedTasks().isEmpty());
+		scheduler.setFinishedTaskHistorySize(2);
+		BukkitTask first = scheduler.runTaskLater(null, () -> {}, 1L);
+		BukkitTask second = scheduler.runTaskLater(null, () -> {}, 2L);
+		BukkitTask third = scheduler.runTaskLater(null, () -> {}, 3L);
+		scheduler.performTicks(2L);
+		assertEquals(2, scheduler.getRecentlyFinishedTasks().size());
+		assertSame(first, scheduler.getRecentlyFinishedTasks().get(0));
+
+		third.cancel();
+		assertEquals(2, scheduler.getRecentlyFinishedTasks().size());
+		assertSame(second, scheduler.getRecentlyFinishedTasks().get(0));
+		assertSame(third, scheduler.getRecentlyFinishedTasks().get(1));
+	}
+
 	@Test
 	public void cancellingAllTaskByPlugin()
 	{
@@ -214,6 +440,73 @@ class BukkitSchedulerMockTest
 	}
 
 
+	@Test
+	void isCurrentlyRunning_OnlyWhileTaskRuns()
+	{
+		AtomicBoolean runningInside = new AtomicBoolean(false);
+		testTask = scheduler.runTaskLater(null, () -> runningInside.set(scheduler.isCurrentlyRunning(testTask.getTaskId())), 1L);
+		assertFalse(scheduler.isCurrentlyRunning(testTask.getTaskId()));
+		scheduler.performOneTick();
+		assertTrue(runningInside.get());
+		assertFalse(scheduler.isCurrentlyRunning(testTask.getTaskId()));
+	}
+
+	@Test
+	void getPendingTasks_OnlyLiveTasks()
+	{
+		BukkitTask first = scheduler.runTaskLater(null, () -> {}, 1L);
+		BukkitTask second = scheduler.runTaskLater(null, () -> {}, 5L);
+		BukkitTask third = scheduler.runTaskTimer(null, () -> {}, 1L, 1L);
+		third.cancel();
+		assertEquals(2, scheduler.getPendingTasks().size());
+		scheduler.performOneTick();
+		assertEquals(1, scheduler.getPendingTasks().size());
+		assertSame(second, scheduler.getPendingTasks().get(0));
+		assertFalse(scheduler.getPendingTasks().contains(first));
+	}
+
+	@Test
+	void getPendingTasks_ByPlugin()
+	{
+		MockBukkit.mock();
+		Plugin plugin = MockBukkit.createMockPlugin();
+		BukkitSchedulerMock scheduler1 = MockBukkit.getMock().getScheduler();
+		BukkitTask task = scheduler1.runTaskLater(plugin, () -> {}, 5L);
+		scheduler1.runTaskLater(null, () -> {}, 5L);
+		assertEquals(1, scheduler1.getPendingTasks(plugin).size());
+		assertSame(task, scheduler1.getPendingTasks(plugin).get(0));
+		task.cancel();
+		assertTrue(scheduler1.getPendingTasks(plugin).isEmpty());
+		MockBukkit.unmock();
+	}
+
+	@Test
+	void getActiveWorkers_AsyncTaskRunning() throws InterruptedException, BrokenBarrierException, TimeoutException
+	{
+		CyclicBarrier started = new CyclicBarrier(2);
+		CyclicBarrier finish = new CyclicBarrier(2);
+		BukkitTask task = scheduler.runTaskAsynchronously(null, () ->
+		{
+			try
+			{
+				started.await(3L, TimeUnit.SECONDS);
+				finish.await(3L, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException | BrokenBarrierException | TimeoutException e)
+			{
+				throw new RuntimeException(e);
+			}
+		});
+		started.await(3L, TimeUnit.SECONDS);
+		assertEquals(1, scheduler.getActiveWorkers().size());
+		assertEquals(task.getTaskId(), scheduler.getActiveWorkers().get(0).getTaskId());
+		assertNotEquals(Thread.currentThread(), scheduler.getActiveWorkers().get(0).getThread());
+		assertTrue(scheduler.isCurrentlyRunning(task.getTaskId()));
+		finish.await(3L, TimeUnit.SECONDS);
+		scheduler.waitAsyncTasksFinished();
+		assertTrue(scheduler.getActiveWorkers().isEmpty());
+	}
+
 	@Test
 	public void longScheduledRunningTask_Throws_RunTimeException()
 	{
@@ -260,6 +553,51 @@ class BukkitSchedulerMockTest
 		});
 	}
 
+	@Test
+	void shutdown_TaskStillRunning_ReportsRunningTasks()
+	{
+		BukkitTask task = scheduler.runTaskAsynchronously(null, () ->
+		{
+			try
+			{
+				Thread.sleep(10_000L);
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		});
+		scheduler.setShutdownTimeout(100);
+		AsyncTaskTimeoutException exception = assertThrows(AsyncTaskTimeoutException.class, scheduler::shutdown);
+		assertEquals(1, exception.getRunningTasks().size());
+		assertSame(task, exception.getRunningTasks().get(0));
+		assertTrue(exception.getMessage().contains("Task #" + task.getTaskId() + " owned by no plugin"));
+		assertTrue(task.isCancelled());
+	}
+
+	@Test
+	void waitAsyncTasksFinished_TasksFinish_ReturnsWhenLastTaskFinished()
+	{
+		AtomicInteger finished = new AtomicInteger();
+		for (int i = 0; i < 10; i++)
+		{
+			scheduler.runTaskAsynchronously(null, () ->
+			{
+				try
+				{
+					Thread.sleep(20L);
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+				finished.incrementAndGet();
+			});
+		}
+		scheduler.waitAsyncTasksFinished();
+		assertEquals(10, finished.get());
+	}
+
 	@Test
 	public void longRunningTask_Throws_RunTimeException()
 	{
@@ -0,0 +1,143 @@
+package be.seeseemelk.mockbukkit.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.ServerLoadEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+
+class MainThreadWatchdogTest
+{
+	private ServerMock server;
+	private Plugin plugin;
+
+	@BeforeEach
+	public void setUp()
+	{
+		server = MockBukkit.mock();
+		plugin = MockBukkit.createMockPlugin();
+	}
+
+	@AfterEach
+	public void tearDown()
+	{
+		MockBukkit.unmock();
+	}
+
+	private static void sleep(long millis)
+	{
+		try
+		{
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Test
+	void enableWatchdog_FastTask_NoReport()
+	{
+		MainThreadWatchdog watchdog = server.enableWatchdog(1, TimeUnit.SECONDS, MainThreadWatchdog.Action.FAIL);
+		server.getScheduler().runTask(plugin, () -> {});
+		server.getScheduler().performOneTick();
+		assertTrue(watchdog.getReports().isEmpty());
+	}
+
+	@Test
+	void enableWatchdog_SlowTaskWithReport_ReportNamesTask()
+	{
+		MainThreadWatchdog watchdog = server.enableWatchdog(20, TimeUnit.MILLISECONDS,
+		                                                    MainThreadWatchdog.Action.REPORT);
+		BukkitTask task = server.getScheduler().runTask(plugin, () -> sleep(500));
+		server.getScheduler().performOneTick();
+
+		List<String> reports = watchdog.getReports();
+		assertEquals(1, reports.size());
+		assertTrue(reports.get(0).contains("task #" + task.getTaskId()));
+		assertTrue(reports.get(0).contains(plugin.getName()));
+		assertTrue(reports.get(0).contains("sleep"));
+	}
+
+	@Test
+	void enableWatchdog_SpinningTaskWithFail_Throws()
+	{
+		server.enableWatchdog(20, TimeUnit.MILLISECONDS, MainThreadWatchdog.Action.FAIL);
+		server.getScheduler().runTask(plugin, () ->
+		{
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (!Thread.currentThread().isInterrupted() && System.nanoTime() < deadline)
+			{
+				// Spin until the watchdog interrupts us.
+			}
+		});
+		assertThrows(WatchdogTimeoutException.class, server.getScheduler()::performOneTick);
+		assertFalse(Thread.currentThread().isInterrupted());
+	}
+
+	@Test
+	void enableWatchdog_FailingTaskWithFail_TaskExceptionKept()
+	{
+		server.enableWatchdog(20, TimeUnit.MILLISECONDS, MainThreadWatchdog.Action.FAIL);
+		server.getScheduler().runTask(plugin, () ->
+		{
+			sleep(500);
+			throw new IllegalStateException("Task failed");
+		});
+		IllegalStateException e = assertThrows(IllegalStateException.class, server.getScheduler()::performOneTick);
+		assertEquals("Task failed", e.getMessage());
+		assertEquals(1, e.getSuppressed().length);
+		assertTrue(e.getSuppressed()[0] instanceof WatchdogTimeoutException);
+		assertFalse(Thread.currentThread().isInterrupted());
+	}
+
+	@Test
+	void enableWatchdog_SlowEventHandler_Reported()
+	{
+		MainThreadWatchdog watchdog = server.enableWatchdog(20, TimeUnit.MILLISECONDS,
+		                                                    MainThreadWatchdog.Action.REPORT);
+		server.getPluginManager().registerEvents(new SlowListener(), plugin);
+		server.getPluginManager().callEvent(new ServerLoadEvent(ServerLoadEvent.LoadType.STARTUP));
+
+		List<String> reports = watchdog.getReports();
+		assertEquals(1, reports.size());
+		assertTrue(reports.get(0).contains("ServerLoadEvent"));
+		assertTrue(reports.get(0).contains(SlowListener.class.getName()));
+	}
+
+	@Test
+	void disableWatchdog_SlowTask_NotWatched()
+	{
+		MainThreadWatchdog watchdog = server.enableWatchdog(20, TimeUnit.MILLISECONDS,
+		                                                    MainThreadWatchdog.Action.REPORT);
+		server.disableWatchdog();
+		server.getScheduler().runTask(plugin, () -> sleep(100));
+		server.getScheduler().performOneTick();
+		assertTrue(watchdog.getReports().isEmpty());
+	}
+
+	public static class SlowListener implements Listener
+	{
+		@EventHandler
+		public void onServerLoad(ServerLoadEvent event)
+		{
+			sleep(500);
+		}
+	}
+
+}
@@ -0,0 +1,83 @@
+package be.seeseemelk.mockbukkit.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.scheduler.BukkitTask;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SchedulerTimingsTest
+{
+	private BukkitSchedulerMock scheduler;
+
+	@BeforeEach
+	public void setUp()
+	{
+		scheduler = new BukkitSchedulerMock();
+	}
+
+	private static void sleep(long millis)
+	{
+		try
+		{
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Test
+	void timingsDisabled_NothingRecorded()
+	{
+		assertFalse(scheduler.isTimingsEnabled());
+		BukkitTask task = scheduler.runTaskTimer(null, () -> {}, 1L, 1L);
+		scheduler.performTicks(5L);
+		assertEquals(0, scheduler.getTimings().getTaskTimings(task.getTaskId()).getCount());
+	}
+
+	@Test
+	void getTaskTimings_RepeatingTask_CountsInvocations()
+	{
+		scheduler.setTimingsEnabled(true);
+		BukkitTask task = scheduler.runTaskTimer(null, () -> sleep(2L), 1L, 1L);
+		scheduler.performTicks(5L);
+
+		SchedulerTimings.Timing timing = scheduler.getTimings().getTaskTimings(task.getTaskId());
+		assertEquals(5, timing.getCount());
+		assertTrue(timing.getMaxNanos() >= TimeUnit.MILLISECONDS.toNanos(2L));
+		assertTrue(timing.getTotalNanos() >= timing.getMaxNanos());
+		assertEquals(5, scheduler.getTimings().getPluginTimings(null).getCount());
+	}
+
+	@Test
+	void getRunnableTimings_AggregatesByRunnableClass()
+	{
+		scheduler.setTimingsEnabled(true);
+		Runnable runnable = () -> {};
+		scheduler.runTaskLater(null, runnable, 1L);
+		scheduler.runTaskLater(null, runnable, 2L);
+		scheduler.performTicks(2L);
+		assertEquals(2, scheduler.getTimings().getRunnableTimings(runnable.getClass()).getCount());
+	}
+
+	@Test
+	void getOverBudgetTicks_SlowTick_Reported()
+	{
+		scheduler.setTimingsEnabled(true);
+		scheduler.getTimings().setTickBudget(5, TimeUnit.MILLISECONDS);
+		scheduler.runTaskLater(null, () -> sleep(10L), 3L);
+		scheduler.performTicks(5L);
+		assertEquals(1, scheduler.getTimings().getOverBudgetTicks().size());
+		assertTrue(scheduler.getTimings().getOverBudgetTicks().containsKey(3L));
+		assertTrue(scheduler.getTimings().getReport().contains("Ticks over budget: 1"));
+
+		scheduler.getTimings().reset();
+		assertTrue(scheduler.getTimings().getOverBudgetTicks().isEmpty());
+	}
+}
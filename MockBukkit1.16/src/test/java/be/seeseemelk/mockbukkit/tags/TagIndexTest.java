@@ -0,0 +1,87 @@
+package be.seeseemelk.mockbukkit.tags;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+
+class TagIndexTest
+{
+	private static final File TAGS_DIRECTORY = new File("src/main/resources/tags");
+
+	@TempDir
+	File temporaryDirectory;
+
+	@BeforeEach
+	public void setUp()
+	{
+		MockBukkit.mock();
+	}
+
+	@AfterEach
+	public void tearDown()
+	{
+		MockBukkit.unmock();
+	}
+
+	private static Set<NamespacedKey> getSubTagKeys(TagWrapperMock tag)
+	{
+		return tag.getSubTags().stream().map(TagWrapperMock::getKey).collect(Collectors.toSet());
+	}
+
+	@Test
+	void load_CompiledIndex_SameTagsAsJson() throws IOException
+	{
+		assumeTrue(TAGS_DIRECTORY.isDirectory());
+		File index = new File(temporaryDirectory, "index.bin");
+		TagIndex.main(new String[] { TAGS_DIRECTORY.getPath(), index.getPath() });
+
+		Map<NamespacedKey, TagWrapperMock> jsonTags = new HashMap<>(TagRegistry.BLOCKS.getTags());
+		assertTrue(TagIndex.load(new FileInputStream(index)));
+
+		assertEquals(jsonTags.keySet(), TagRegistry.BLOCKS.getTags().keySet());
+		for (TagWrapperMock jsonTag : jsonTags.values())
+		{
+			TagWrapperMock indexedTag = TagRegistry.BLOCKS.getTags().get(jsonTag.getKey());
+			assertNotSame(jsonTag, indexedTag);
+			assertEquals(jsonTag.getValues(), indexedTag.getValues(), jsonTag.getKey().toString());
+			assertEquals(getSubTagKeys(jsonTag), getSubTagKeys(indexedTag), jsonTag.getKey().toString());
+		}
+
+		TagWrapperMock logs = TagRegistry.BLOCKS.getTags().get(NamespacedKey.minecraft("logs"));
+		assertTrue(logs.isTagged(Material.OAK_LOG));
+		assertTrue(logs.getSubTags().contains(TagRegistry.BLOCKS.getTags().get(NamespacedKey.minecraft("logs_that_burn"))));
+	}
+
+	@Test
+	void load_DamagedIndex_False()
+	{
+		assertFalse(TagIndex.load(new ByteArrayInputStream(new byte[] { 1, 2, 3 })));
+	}
+
+	@Test
+	void load_WrongMagic_False()
+	{
+		assertFalse(TagIndex.load(new ByteArrayInputStream(new byte[16])));
+	}
+
+}
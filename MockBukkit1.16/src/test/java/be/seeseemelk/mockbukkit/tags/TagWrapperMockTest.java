@@ -0,0 +1,200 @@
+package be.seeseemelk.mockbukkit.tags;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TagWrapperMockTest
+{
+	private TagWrapperMock parent;
+	private TagWrapperMock child;
+
+	@BeforeEach
+	public void setUp()
+	{
+		parent = new TagWrapperMock(TagRegistry.BLOCKS, NamespacedKey.minecraft("mockbukkit_parent"));
+		child = new TagWrapperMock(TagRegistry.BLOCKS, NamespacedKey.minecraft("mockbukkit_child"));
+		child.setValues(EnumSet.of(Material.OAK_LOG), Collections.emptySet());
+		parent.setValues(EnumSet.of(Material.STONE), Collections.singleton(child));
+	}
+
+	@Test
+	void isTagged_NestedTag_Resolved()
+	{
+		assertTrue(parent.isTagged(Material.STONE));
+		assertTrue(parent.isTagged(Material.OAK_LOG));
+		assertFalse(parent.isTagged(Material.DIRT));
+		assertFalse(child.isTagged(Material.STONE));
+	}
+
+	@Test
+	void getValues_CalledTwice_SameImmutableSet()
+	{
+		Set<Material> values = parent.getValues();
+		assertEquals(EnumSet.of(Material.STONE, Material.OAK_LOG), values);
+		assertSame(values, parent.getValues());
+		assertThrows(UnsupportedOperationException.class, () -> values.add(Material.DIRT));
+	}
+
+	@Test
+	void isTagged_NestedTagChanged_Invalidated()
+	{
+		assertTrue(parent.isTagged(Material.OAK_LOG));
+		child.setValues(EnumSet.of(Material.BIRCH_LOG), Collections.emptySet());
+		assertFalse(parent.isTagged(Material.OAK_LOG));
+		assertTrue(parent.isTagged(Material.BIRCH_LOG));
+		assertEquals(EnumSet.of(Material.STONE, Material.BIRCH_LOG), parent.getValues());
+	}
+
+	@Test
+	void getValues_UnrelatedTagChanged_StillCached()
+	{
+		TagWrapperMock other = new TagWrapperMock(TagRegistry.BLOCKS, NamespacedKey.minecraft("mockbukkit_other"));
+		other.setValues(EnumSet.of(Material.DIRT), Collections.emptySet());
+		Set<Material> values = parent.getValues();
+
+		other.setValues(EnumSet.of(Material.SAND), Collections.emptySet());
+		TagWrapperMock fresh = new TagWrapperMock(TagRegistry.BLOCKS, NamespacedKey.minecraft("mockbukkit_fresh"));
+		fresh.setValues(EnumSet.of(Material.GRAVEL), Collections.emptySet());
+		assertSame(values, parent.getValues());
+	}
+
+	@Test
+	void getValues_DeeplyNestedTagChanged_Invalidated()
+	{
+		TagWrapperMock grandparent = new TagWrapperMock(TagRegistry.BLOCKS,
+		        NamespacedKey.minecraft("mockbukkit_grandparent"));
+		grandparent.setValues(Collections.emptySet(), Collections.singleton(parent));
+		assertTrue(grandparent.isTagged(Material.OAK_LOG));
+
+		child.setValues(EnumSet.of(Material.BIRCH_LOG), Collections.emptySet());
+		assertFalse(grandparent.isTagged(Material.OAK_LOG));
+		assertTrue(grandparent.isTagged(Material.BIRCH_LOG));
+	}
+
+	@Test
+	void isTagged_DeferredTag_LoadedOnFirstUse()
+	{
+		TagWrapperMock saplings = new TagWrapperMock(TagRegistry.BLOCKS, NamespacedKey.minecraft("saplings"));
+		saplings.deferLoading(Logger.getLogger("TagWrapperMockTest"));
+		assertTrue(saplings.isTagged(Material.OAK_SAPLING));
+		assertFalse(saplings.isTagged(Material.STONE));
+	}
+
+	@Test
+	void getValues_DeferredTagUsedByManyThreads_LoadedOnce() throws InterruptedException
+	{
+		TagWrapperMock saplings = new TagWrapperMock(TagRegistry.BLOCKS, NamespacedKey.minecraft("saplings"));
+		saplings.deferLoading(Logger.getLogger("TagWrapperMockTest"));
+		List<Set<Material>> results = Collections.synchronizedList(new ArrayList<>());
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < 8; i++)
+		{
+			Thread thread = new Thread(() -> results.add(saplings.getValues()));
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads)
+		{
+			thread.join();
+		}
+
+		assertEquals(8, results.size());
+		for (Set<Material> values : results)
+		{
+			assertTrue(values.contains(Material.OAK_SAPLING));
+			assertEquals(results.get(0), values);
+		}
+	}
+
+	@Test
+	void isTagged_NestedTagGetsFirstContents_Invalidated()
+	{
+		TagWrapperMock empty = new TagWrapperMock(TagRegistry.BLOCKS, NamespacedKey.minecraft("mockbukkit_empty"));
+		TagWrapperMock holder = new TagWrapperMock(TagRegistry.BLOCKS, NamespacedKey.minecraft("mockbukkit_holder"));
+		holder.setValues(Collections.emptySet(), Collections.singleton(empty));
+		assertFalse(holder.isTagged(Material.DIRT));
+
+		empty.setValues(EnumSet.of(Material.DIRT), Collections.emptySet());
+		assertTrue(holder.isTagged(Material.DIRT));
+	}
+
+	@Test
+	void isTagged_DeferredNestedTagResolvedByManyThreads_NeverEmpty() throws InterruptedException
+	{
+		TagWrapperMock saplings = new TagWrapperMock(TagRegistry.BLOCKS, NamespacedKey.minecraft("saplings"));
+		saplings.deferLoading(Logger.getLogger("TagWrapperMockTest"));
+		TagWrapperMock holder = new TagWrapperMock(TagRegistry.BLOCKS, NamespacedKey.minecraft("mockbukkit_holder"));
+		holder.setValues(Collections.emptySet(), Collections.singleton(saplings));
+		List<Boolean> results = Collections.synchronizedList(new ArrayList<>());
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < 8; i++)
+		{
+			Thread thread = new Thread(() -> results.add(holder.isTagged(Material.OAK_SAPLING)));
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads)
+		{
+			thread.join();
+		}
+
+		assertEquals(8, results.size());
+		assertFalse(results.contains(false));
+		assertTrue(holder.isTagged(Material.OAK_SAPLING));
+	}
+
+	@Test
+	void getValues_DeferredTagLoaded_OtherTagsStillCached()
+	{
+		Set<Material> values = parent.getValues();
+		TagWrapperMock saplings = new TagWrapperMock(TagRegistry.BLOCKS, NamespacedKey.minecraft("saplings"));
+		saplings.deferLoading(Logger.getLogger("TagWrapperMockTest"));
+		assertTrue(saplings.isTagged(Material.OAK_SAPLING));
+		assertSame(values, parent.getValues());
+	}
+
+	@Test
+	void getValues_ChangedWhileResolving_NeverSeesPartialContents() throws InterruptedException
+	{
+		Set<Material> first = EnumSet.of(Material.OAK_LOG, Material.SPRUCE_LOG);
+		Set<Material> second = EnumSet.of(Material.BIRCH_LOG, Material.JUNGLE_LOG);
+		Thread writer = new Thread(() ->
+		{
+			for (int i = 0; i < 10_000; i++)
+			{
+				child.setValues(i % 2 == 0 ? second : first, Collections.emptySet());
+			}
+		});
+		writer.start();
+		try
+		{
+			while (writer.isAlive())
+			{
+				Set<Material> values = parent.getValues();
+				assertTrue(values.containsAll(first) || values.containsAll(second), values::toString);
+				assertEquals(3, values.size());
+				parent.getSubTags().forEach(TagWrapperMock::getSubTags);
+			}
+		}
+		finally
+		{
+			writer.join();
+		}
+	}
+
+}